@@ -1,5 +1,16 @@
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents the nodes that can be 
@@ -10,11 +21,13 @@ class Node<T>
   T data;
   Node<T> left, right;
   int height;
+  int count;    /** Number of nodes in the subtree rooted here. */
  
   Node(T data)
   {
     this.data = data;
     this.height = 1;
+    this.count = 1;
   }
 }
 
@@ -25,7 +38,7 @@ class Node<T>
  * @author Selin Kayay
  * @version 1.0
  */
-public class BST<T>
+public class BST<T> implements Iterable<T>
 {
   private Node<T> root;               /** Root node of the tree. */
   public int size;                    /** Keeps track of number of nodes in tree. */
@@ -62,358 +75,792 @@ public class BST<T>
    */
   public void clear() {
     this.root = null;
+    this.size = 0;
   }
 
 
-  public static int flag = 0; /** 0 if no duplicate node found during insertion, 1 otherwise. */
+  /**
+   * No longer set by insert, which now reports duplicates through
+   * its return value. Kept so existing code still compiles.
+   */
+  @Deprecated
+  public static int flag = 0;
  
    /**
-   * Wrapper for the recursive overloaded method `insert` below.
-   * This method adds a node to a tree instance.
+   * Adds a node to a tree instance. The tree is walked down
+   * iteratively, remembering the path in a stack local to the
+   * call, and then rebalanced back up along that path.
    * @param data is the generic data to be added.
-   * @return true if added, false otherwise.
+   * @return true if added, false if an equal node was already
+   * in the tree.
    */
   public boolean insert(T data)
   {
-    size++;
-    Node<T> temp = insert(root, data);
+    if (root == null) {
+      root = new Node<T>(data);
+      size++;
+      return true;
+    }
 
-    /** Flag will be set to 1 within the helper
-     * method when a duplicate node was attempted
-     * to be inserted. This logic is useful for 
-     * easier implementations of addX within the 
-     * stores.
+    /** Walk down to the node to hang the new one from,
+     * comparing once per level. Going by the logic
+     * required for the stores a duplicate node leaves
+     * the tree unchanged and returns false.
      */
-    if ( flag == 1 ) {
-      flag = 0;
-      root = temp;
-      return false;
+    Node<T>[] path = newPath();
+    int depth = 0;
+    Node<T> current = root;
+    int cmp;
+    while (true) {
+      path[depth++] = current;
+      cmp = comparator.compare(data, current.data);
+      if (cmp == 0)
+        return false;
+
+      Node<T> next = (cmp < 0) ? current.left : current.right;
+      if (next == null)
+        break;
+      current = next;
     }
 
-    root = temp;
+    if (cmp < 0)
+      current.left = new Node<T>(data);
+    else
+      current.right = new Node<T>(data);
+    size++;
+
+    rebalance(path, depth);
     return true;
   }
  
-  /** Helper for insert, traverses the tree as usual starting from root
-   * to find the location which to where the node should be inserted.
-   * When location is found the node is inserted the tree is rebalanced
-   * if required.
-   * 
-   * @param root is the starting, root node.
-   * @param data is the node to be inserted.
-   * @return the root node after operation.
-   * 
-   */
-  private Node<T> insert(Node<T> root, T data)
-  {
-    /** instantiate a new Node with data as data
-     * if the current root has not been previously
-     * instantiated */
-    if (root == null) return new Node<T>(data);
-  
-    /** If the value of the data being searched for is
-     * less than the value of the current root node, then
-     * traverse to the left node of the current root, setting
-     * the current left node to whatever gets returned from
-     * the insert method. 
-    */
-    else if (comparator.compare(data,root.data) < 0)
-      root.left = insert(root.left, data);
-  
-    /** if the value of the data being searched for is less
-     * than the value of the current root node, then traverse
-     * to the right node of the current root, setting the current
-     * right node to whatever gets returned from the insert method.
-    */
-    else if (comparator.compare(data, root.data) > 0)
-      root.right = insert(root.right, data);
+ 
+  /**
+   * Removes a given node from the tree if found, then
+   * rebalances the tree along the path to it.
+   * @param data is the node to be removed.
+   * @return true if the node was found and removed,
+   * false otherwise.
+   */
+  public boolean delete(T data)
+  {
+    Node<T>[] path = newPath();
+    int depth = 0;
+    Node<T> current = root;
+
+    /** Search for the node, remembering its ancestors. */
+    while (current != null) {
+      int cmp = comparator.compare(data, current.data);
+      if (cmp == 0)
+        break;
+      path[depth++] = current;
+      current = (cmp < 0) ? current.left : current.right;
+    }
 
-    else
-    {
-      /** This means a duplicate node was
-       * found in the tree. Going by the logic
-       * required for the stores here we return 
-       * the node after setting "flag" to 1 which
-       * will end up returning "false" from insert.
-       */
-      flag = 1;
-      size--;
-      return root;
-      
+    if (current == null)
+      return false;
+
+    /** if the node has two children, then its data is
+     * replaced by the smallest data of its right subtree
+     * and that node, which has no left child, is unlinked
+     * instead.
+     */
+    if (current.left != null && current.right != null) {
+      path[depth++] = current;
+      Node<T> successor = current.right;
+      while (successor.left != null) {
+        path[depth++] = successor;
+        successor = successor.left;
+      }
+      current.data = successor.data;
+      current = successor;
     }
 
-    /** After insertion : BALANCING */
+    /** The node now has at most one child, which takes
+     * its place under the parent.
+     */
+    Node<T> child = (current.left != null) ? current.left : current.right;
+    if (depth == 0)
+      root = child;
+    else if (path[depth - 1].left == current)
+      path[depth - 1].left = child;
+    else
+      path[depth - 1].right = child;
+    size--;
 
-    /** Update height of this ancestor node */
-    root.height = 1 + max(height(root.left), height(root.right));
+    rebalance(path, depth);
+    return true;
+  }
 
-    /** Get the balance factor of this ancestor
-    node to check whether this node became
-    unbalanced */
-    int balance = getBalance(root);
 
-    /** If this node becomes unbalanced, then there
-    are 4 cases. */
-    /** Left Left Case */
-    if (balance > 1 && comparator.compare(data,root.left.data) < 0 )
-        return rightRotate(root);
+  /**
+   * Returns true if the value is contained in the BST 
+   * and false otherwise.
+   * @param data the value that's being searched for.
+   * @return true if found, false otherwise.
+   * @see boolean
+   */
+  public boolean contains(T data)
+  {
+    return find(data, comparator) != null;
+  }
+
+  /**
+   * Given some node the tree is searched for a node with 
+   * duplicate field for whatever the comparator instance 
+   * of the tree compares for.
+   * @param data is the node to get.
+   * @return the node with the matching fields.
+   */
+  public T get(T data)
+  {
+    Node<T> node = find(data, comparator);
+    return (node == null) ? null : node.data;
+  }
 
-    /** Right Right Case */
-    if (balance < -1 && comparator.compare(data,root.right.data) > 0 )
-        return leftRotate(root);
 
-    /** Left Right Case */
-    if (balance > 1 && comparator.compare(data,root.left.data) > 0 ) {
-        root.left = leftRotate(root.left);
-        return rightRotate(root);
+/** Given some node, find the node in the tree that the given
+ * comparator considers equal to it. Nothing is removed.
+ */
+  public T getIf(T data, Comparator<T> comp)
+  {
+    /** The given comparator "comp" is only used for this
+     * search, the comparator of the tree is left as is.
+     */
+    Node<T> node = find(data, comp);
+    return (node == null) ? null : node.data;
+  }
+
+  /**
+   * Iterative binary search for some node in the tree,
+   * comparing once per level.
+   * @param data is the node being searched for.
+   * @param comp is the comparator to search with.
+   * @return the node found, null if not in tree.
+   */
+  private Node<T> find(T data, Comparator<T> comp)
+  {
+    Node<T> current = root;
+    while (current != null) {
+      int cmp = comp.compare(data, current.data);
+      if (cmp == 0)
+        return current;
+      current = (cmp < 0) ? current.left : current.right;
     }
+    return null;
+  }
+
+  /** ORDER STATISTICS */
 
-    /** Right Left Case */
-    if (balance < -1 && comparator.compare(data,root.right.data) < 0 ) {
-        root.right = rightRotate(root.right);
-        return leftRotate(root);
+  /**
+   * Counts the nodes smaller than the given one, in O(log n)
+   * using the subtree counts.
+   * @param data is the node to rank, it need not be in the tree.
+   * @return the number of nodes in the tree less than data.
+   */
+  public int rank(T data)
+  {
+    int rank = 0;
+    Node<T> current = root;
+    while (current != null) {
+      int cmp = comparator.compare(data, current.data);
+      if (cmp <= 0) {
+        current = current.left;
+      } else {
+        rank += 1 + count(current.left);
+        current = current.right;
+      }
     }
- 
-    return root;
+    return rank;
   }
- 
- 
+
   /**
-   * Removes a given node from the tree if found.
-   * Calls the recursive helper method `delete` which 
-   * actually searches for the node and removes if found.
-   * @param data is the node to be removed.
+   * Counts the nodes smaller than or equal to the given one.
+   * @param data is the node to rank.
+   * @return the number of nodes in the tree at most data.
    */
-  public void delete(T data)
+  private int rankInclusive(T data)
   {
-    size--;
-    root = delete(root, data);
+    int rank = 0;
+    Node<T> current = root;
+    while (current != null) {
+      if (comparator.compare(data, current.data) < 0) {
+        current = current.left;
+      } else {
+        rank += 1 + count(current.left);
+        current = current.right;
+      }
+    }
+    return rank;
   }
- 
+
   /**
-   * Helper function for the wrapper above. Searches for some 
-   * node "data" starting from "root". Removes it if found and 
-   * balances the tree.
-   * @param root is the starting, root node.
-   * @param data is the node to be deleted.
-   * @return the new root.
+   * Finds the k-th smallest node of the tree in O(log n).
+   * @param k is the position, 0 for the smallest node.
+   * @return the node at position k in order.
+   * @throws IndexOutOfBoundsException if k is not below size.
    */
-  private Node<T> delete(Node<T> root, T data)
+  public T select(int k)
   {
-    /** if the root node is null, then either there's nothing
-     *  to delete or no more traversal is necessary
-     */
-    if (root == null) return root;
-  
-    else if (comparator.compare(data,root.data) < 0 ) 
-      root.left = delete(root.left, data);
+    if (k < 0 || k >= count(root))
+      throw new IndexOutOfBoundsException("k: " + k + ", size: " + count(root));
+
+    Node<T> current = root;
+    while (true) {
+      int left = count(current.left);
+      if (k < left) {
+        current = current.left;
+      } else if (k == left) {
+        return current.data;
+      } else {
+        k -= left + 1;
+        current = current.right;
+      }
+    }
+  }
 
-    else if (comparator.compare(data,root.data) > 0)
-      root.right = delete(root.right, data);
+  /**
+   * Counts the nodes between lo and hi, both included,
+   * in O(log n).
+   * @param lo is the lower bound.
+   * @param hi is the upper bound.
+   * @return the number of nodes in [lo, hi], 0 if lo > hi.
+   */
+  public int countRange(T lo, T hi)
+  {
+    if (comparator.compare(lo, hi) > 0)
+      return 0;
+    return rankInclusive(hi) - rank(lo);
+  }
 
-    /** The node to delete has been found. */
-    else
-    {
-      /** if the node has no children, then return a value of null */
-      if (root.left == null && root.right == null)
-        return null;
-    
-      /** if the node has a left child, but no right child, then
-       * return the left child */
-      else if (root.right == null) return root.left;
-      
-      /** if the node has a right child, but no left child, then
-       *  return the right child */
-      else if (root.left == null) return root.right;
-      
-      /** if the node has two children, then set the node's data to
-       * be the largest element in the left sub-tree of the node,
-       * and then set the left child's data to be equal to whatever
-       * data is returned when deleting the new root data from the
-       * left sub-tree
-       */
-      else
-      {
-        Node<T> temp = minValueNode(root.right);
-        root.data = temp.data;
-        root.right = delete(root.right, temp.data); 
+  /**
+   * @param data is the node to compare with.
+   * @return the greatest node less than or equal to data,
+   * null if there is none.
+   */
+  public T floor(T data)
+  {
+    T result = null;
+    Node<T> current = root;
+    while (current != null) {
+      int cmp = comparator.compare(data, current.data);
+      if (cmp == 0)
+        return current.data;
+      if (cmp < 0) {
+        current = current.left;
+      } else {
+        result = current.data;
+        current = current.right;
       }
     }
+    return result;
+  }
 
-    /** BALANCING  */
+  /**
+   * @param data is the node to compare with.
+   * @return the least node greater than or equal to data,
+   * null if there is none.
+   */
+  public T ceiling(T data)
+  {
+    T result = null;
+    Node<T> current = root;
+    while (current != null) {
+      int cmp = comparator.compare(data, current.data);
+      if (cmp == 0)
+        return current.data;
+      if (cmp > 0) {
+        current = current.right;
+      } else {
+        result = current.data;
+        current = current.left;
+      }
+    }
+    return result;
+  }
 
-    if (root == null) return root;
+  /**
+   * Returns an iterator over the nodes between lo and hi, both
+   * included, in order. Only the nodes visited are touched, so
+   * a range of k nodes costs O(log n + k). The tree must not be
+   * changed while the iterator is in use.
+   * @param lo is the lower bound, null for no lower bound.
+   * @param hi is the upper bound, null for no upper bound.
+   * @return the iterator.
+   */
+  public Iterator<T> range(T lo, T hi)
+  {
+    return new RangeIterator(lo, hi);
+  }
 
-    /** Update height of the current node. */ 
-    root.height = max(height(root.left), height(root.right)) + 1;  
+  /**
+   * Inorder iterator over a bounded range, keeping the nodes
+   * still to be visited on an explicit stack.
+   */
+  private class RangeIterator implements Iterator<T>
+  {
+    private final Node<T>[] stack;   /** Nodes whose data is yet to be returned. */
+    private int top;                 /** Number of nodes on the stack. */
+    private final T hi;              /** Upper bound, null if none. */
 
+    RangeIterator(T lo, T hi)
+    {
+      this.stack = newPath();
+      this.hi = hi;
+
+      /** Push the path to the first node not below lo. */
+      Node<T> current = root;
+      while (current != null) {
+        if (lo != null && comparator.compare(current.data, lo) < 0) {
+          current = current.right;
+        } else {
+          stack[top++] = current;
+          current = current.left;
+        }
+      }
+    }
 
-    /** Check if the current node has been unbalanced */ 
-    int balance = getBalance(root);  
+    public boolean hasNext()
+    {
+      return top > 0
+        && (hi == null || comparator.compare(stack[top - 1].data, hi) <= 0);
+    }
 
-    /** Check the 4 cases and rotate accordingly to balance. */
-    if (balance > 1 && getBalance(root.left) >= 0)  
-        return rightRotate(root);  
- 
-    if (balance > 1 && getBalance(root.left) < 0)  
-    {  
-        root.left = leftRotate(root.left);  
-        return rightRotate(root);  
-    }  
-
-    if (balance < -1 && getBalance(root.right) <= 0)  
-        return leftRotate(root);  
-
-    if (balance < -1 && getBalance(root.right) > 0)  
-    {  
-        root.right = rightRotate(root.right);  
-        return leftRotate(root);  
-    }  
- 
-    return root;
+    public T next()
+    {
+      if (!hasNext()) throw new NoSuchElementException();
+
+      /** Pop the next node and push the leftmost
+       * path of its right subtree. */
+      Node<T> node = stack[--top];
+      for (Node<T> current = node.right; current != null; current = current.left)
+        stack[top++] = current;
+      return node.data;
+    }
   }
 
+  /** BULK OPERATIONS */
+
+  private static final int PARALLEL_THRESHOLD = 1 << 13;   /** Smallest pair of subtrees split across threads. */
 
   /**
-   * Given some node which is the root of some subtree,
-   * returns the minimum value node in the tree to help
-   * with `delete` when some node with two children is
-   * being removed.
-   * @param node is the root of the subtree.
-   * @return the minimum value node in the given 
-   * subtree.
-   */
-  private Node<T> minValueNode(Node<T> node)  
-  {  
-    Node<T> current = node;  
-
-    /** Loop down to find the leftmost leaf */
-    while (current.left != null)  
-      current = current.left;  
-    return current;  
-  } 
- 
- 
+   * Replaces the contents of the tree with the given nodes in
+   * O(n), building a balanced tree directly instead of inserting
+   * them one by one.
+   * @param sorted holds the nodes in strictly increasing order
+   * of the comparator of the tree.
+   * @throws IllegalArgumentException if sorted is not strictly
+   * increasing.
+   */
+  public void buildFromSorted(T[] sorted)
+  {
+    for (int i = 1; i < sorted.length; i++) {
+      if (comparator.compare(sorted[i - 1], sorted[i]) >= 0)
+        throw new IllegalArgumentException("Array is not strictly increasing at index " + i);
+    }
+    root = build(sorted, 0, sorted.length - 1);
+    size = sorted.length;
+  }
+
   /**
-   * Returns true if the value is contained in the BST 
-   * and false otherwise.
-   * @param data the value that's being searched for.
-   * @return true if found, false otherwise.
-   * @see boolean
+   * Builds a balanced subtree out of sorted[lo..hi], the middle
+   * node becoming its root.
+   * @return the root of the subtree.
    */
-  public boolean contains(T data)
+  private Node<T> build(T[] sorted, int lo, int hi)
   {
-    return contains(root, data);
+    if (lo > hi)
+      return null;
+
+    int mid = (lo + hi) >>> 1;
+    Node<T> node = new Node<T>(sorted[mid]);
+    node.left = build(sorted, lo, mid - 1);
+    node.right = build(sorted, mid + 1, hi);
+    update(node);
+    return node;
   }
- 
-  /** Recursive binary search for some node in the tree
-   * starting with given root.
-   * @param root is the starting root.
-   * @param data is the node being searched for.
-   * @return true if in tree, otherwise false.
+
+  /**
+   * Makes this tree the union of itself and other, in
+   * O(m log(n/m + 1)) for trees of sizes m <= n. Where both
+   * trees hold equal nodes the one of this tree is kept.
+   * The nodes of other are moved over, leaving it empty.
+   * @param other is a tree ordered by the same comparator.
    */
-  private boolean contains(Node<T> root, T data)
+  public void union(BST<T> other)
   {
-    /** if the root is null, then either the BST
-     * is empty or the value has not been found
-     * and traversal cannot continue */
-    if (root == null) return false;
+    setOperation(UNION, other, false);
+  }
 
-    /** Search  */
+  /**
+   * Keeps only the nodes of this tree that are also in
+   * other, emptying other.
+   * @param other is a tree ordered by the same comparator.
+   */
+  public void intersection(BST<T> other)
+  {
+    setOperation(INTERSECTION, other, false);
+  }
 
-    else if (comparator.compare(data,root.data) < 0)
-      return contains(root.left, data);
+  /**
+   * Removes the nodes of other from this tree, emptying other.
+   * @param other is a tree ordered by the same comparator.
+   */
+  public void difference(BST<T> other)
+  {
+    setOperation(DIFFERENCE, other, false);
+  }
 
-    else if (comparator.compare(data,root.data) > 0)
-      return contains(root.right, data);
+  /** As union, with large subtrees handled in parallel on the
+   * common ForkJoinPool. */
+  public void parallelUnion(BST<T> other)
+  {
+    setOperation(UNION, other, true);
+  }
 
-    /** Data found. */
-    else
-      return true;
+  /** As intersection, with large subtrees handled in parallel on
+   * the common ForkJoinPool. */
+  public void parallelIntersection(BST<T> other)
+  {
+    setOperation(INTERSECTION, other, true);
+  }
 
+  /** As difference, with large subtrees handled in parallel on
+   * the common ForkJoinPool. */
+  public void parallelDifference(BST<T> other)
+  {
+    setOperation(DIFFERENCE, other, true);
   }
 
+  private static final int UNION = 0;
+  private static final int INTERSECTION = 1;
+  private static final int DIFFERENCE = 2;
+
   /**
-   * Given some node the tree is searched for a node with 
-   * duplicate field for whatever the comparator instance 
-   * of the tree compares for.
-   * @param data is the node to get.
-   * @return the node with the matching fields.
+   * Runs a set operation between this tree and other, storing
+   * the result in this tree and emptying other.
    */
-  public T get(T data)
+  private void setOperation(int op, BST<T> other, boolean parallel)
   {
-    return get(root, data);
+    if (other == this)
+      throw new IllegalArgumentException("Cannot combine a tree with itself.");
+
+    SetOperation task = new SetOperation(op, root, other.root, parallel);
+    root = parallel ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+    size = count(root);
+    other.root = null;
+    other.size = 0;
   }
- 
 
   /**
-   * The recursive helper for get. Searches the tree as usual and returns
-   * the node when the comparison indicates
-   * @param root is the starting root node.
-   * @param data is the node to compare with the tree nodes.
-   * @return the node that has a matching field.
+   * A set operation between two subtrees. The first tree is
+   * split around the root of the other, or the other way round,
+   * and the two halves are combined independently before being
+   * joined back, which lets large halves run on other threads.
    */
-  private T get(Node<T> root, T data)
+  @SuppressWarnings("serial")
+  private class SetOperation extends RecursiveTask<Node<T>>
   {
-    /** Base case. */
-    if (root == null) return null;
+    private final int op;
+    private final Node<T> a, b;
+    private final boolean parallel;
 
-    else if (comparator.compare(data,root.data) < 0)
-      return get(root.left, data);
+    SetOperation(int op, Node<T> a, Node<T> b, boolean parallel)
+    {
+      this.op = op;
+      this.a = a;
+      this.b = b;
+      this.parallel = parallel;
+    }
 
-    else if (comparator.compare(data,root.data) > 0)
-      return get(root.right, data);
+    @Override
+    protected Node<T> compute()
+    {
+      if (a == null)
+        return (op == UNION) ? b : null;
+      if (b == null)
+        return (op == INTERSECTION) ? null : a;
+
+      /** Union and intersection split b around the root of a,
+       * difference splits a around the root of b. */
+      Node<T> pivot = (op == DIFFERENCE) ? b : a;
+      Split<T> split = split((op == DIFFERENCE) ? a : b, pivot.data);
+      Node<T> pivotLeft = pivot.left;
+      Node<T> pivotRight = pivot.right;
+
+      SetOperation leftTask = (op == DIFFERENCE)
+        ? new SetOperation(op, split.left, pivotLeft, parallel)
+        : new SetOperation(op, pivotLeft, split.left, parallel);
+      SetOperation rightTask = (op == DIFFERENCE)
+        ? new SetOperation(op, split.right, pivotRight, parallel)
+        : new SetOperation(op, pivotRight, split.right, parallel);
+
+      Node<T> left, right;
+      if (parallel && count(a) + count(b) > PARALLEL_THRESHOLD) {
+        leftTask.fork();
+        right = rightTask.compute();
+        left = leftTask.join();
+      } else {
+        left = leftTask.compute();
+        right = rightTask.compute();
+      }
 
-    else
-      return root.data;
+      /** Put the root back between the halves when it
+       * belongs to the result. */
+      switch (op) {
+        case UNION:
+          return BST.this.join(left, pivot, right);
+        case INTERSECTION:
+          return (split.match != null) ? BST.this.join(left, pivot, right) : join2(left, right);
+        default:
+          return join2(left, right);
+      }
+    }
+  }
 
+  /** The parts of a tree split around some key. */
+  private static class Split<T>
+  {
+    Node<T> left;    /** Nodes less than the key. */
+    Node<T> match;   /** The node equal to the key, if any. */
+    Node<T> right;   /** Nodes greater than the key. */
   }
 
+  /**
+   * Splits a tree around the given key in O(log n), taking
+   * its nodes apart and joining them into the two sides.
+   * @param node is the root of the tree to split.
+   * @param data is the key.
+   * @return the two sides and the matching node, detached.
+   */
+  private Split<T> split(Node<T> node, T data)
+  {
+    if (node == null)
+      return new Split<T>();
+
+    int cmp = comparator.compare(data, node.data);
+    Node<T> left = node.left;
+    Node<T> right = node.right;
+    if (cmp == 0) {
+      Split<T> result = new Split<T>();
+      result.left = left;
+      result.right = right;
+      node.left = node.right = null;
+      update(node);
+      result.match = node;
+      return result;
+    }
+    if (cmp < 0) {
+      Split<T> result = split(left, data);
+      result.right = join(result.right, node, right);
+      return result;
+    }
+    Split<T> result = split(right, data);
+    result.left = join(left, node, result.left);
+    return result;
+  }
 
-/** Given some node in the tree, find another node in the tree through 
- * comparator and replace that node with the given one.
- */
-  public T getIf(T data, Comparator<T> comp)
+  /**
+   * Joins two trees with a node between them, every node of
+   * left being less than middle and every node of right greater.
+   * Runs in O(|height(left) - height(right)|).
+   * @return the root of the balanced result.
+   */
+  private Node<T> join(Node<T> left, Node<T> middle, Node<T> right)
   {
-    /** Replace comparator instance to the 
-     * given comparator "comp". Keep the 
-     * initial comparator and set back before
-     * returning.
-     */
-    Comparator<T> prevcomp = this.comparator;
-    this.comparator = comp;
-    T temp = getIf(root, data);
-    this.comparator = prevcomp;
-    return temp;
+    if (height(left) > height(right) + 1)
+      return joinRight(left, middle, right);
+    if (height(right) > height(left) + 1)
+      return joinLeft(left, middle, right);
+
+    middle.left = left;
+    middle.right = right;
+    update(middle);
+    return middle;
   }
- 
+
   /**
-   * Search the tree as usual and return node when found 
-   * to have duplicate field to given data node.
-   * @param root is the starting root node.
-   * @param data is the node to be compared to.
-   * @return the node in the tree with duplicate fields
-   * to "data".
+   * Join for a left tree taller than the right one: walks down
+   * the right spine of left to a subtree of about the height of
+   * right and hangs the middle node there.
    */
-  private T getIf(Node<T> root, T data)
+  private Node<T> joinRight(Node<T> left, Node<T> middle, Node<T> right)
   {
-    if (root == null) return null;
-    
-    else if (comparator.compare(data,root.data) < 0)
-      return getIf(root.left, data);
+    Node<T> spine = left.right;
+    if (height(spine) <= height(right) + 1) {
+      middle.left = spine;
+      middle.right = right;
+      update(middle);
+      if (height(middle) <= height(left.left) + 1) {
+        left.right = middle;
+        update(left);
+        return left;
+      }
+      left.right = rightRotate(middle);
+      update(left);
+      return leftRotate(left);
+    }
 
-    else if (comparator.compare(data,root.data) > 0)
-      return getIf(root.right, data);
+    left.right = joinRight(spine, middle, right);
+    update(left);
+    if (height(left.right) <= height(left.left) + 1)
+      return left;
+    return leftRotate(left);
+  }
 
-    else
-    {
-      size--;
-      return root.data;
+  /** Mirror image of joinRight for a taller right tree. */
+  private Node<T> joinLeft(Node<T> left, Node<T> middle, Node<T> right)
+  {
+    Node<T> spine = right.left;
+    if (height(spine) <= height(left) + 1) {
+      middle.left = left;
+      middle.right = spine;
+      update(middle);
+      if (height(middle) <= height(right.right) + 1) {
+        right.left = middle;
+        update(right);
+        return right;
+      }
+      right.left = leftRotate(middle);
+      update(right);
+      return rightRotate(right);
+    }
+
+    right.left = joinLeft(left, middle, spine);
+    update(right);
+    if (height(right.left) <= height(right.right) + 1)
+      return right;
+    return rightRotate(right);
+  }
+
+  /**
+   * Joins two trees without a middle node by taking the
+   * greatest node of left out to use as one.
+   */
+  private Node<T> join2(Node<T> left, Node<T> right)
+  {
+    if (left == null)
+      return right;
+
+    Split<T> last = splitLast(left);
+    return join(last.left, last.match, right);
+  }
+
+  /**
+   * Takes the greatest node out of a tree.
+   * @return the remaining tree as left and the node as match.
+   */
+  private Split<T> splitLast(Node<T> node)
+  {
+    if (node.right == null) {
+      Split<T> result = new Split<T>();
+      result.left = node.left;
+      node.left = null;
+      update(node);
+      result.match = node;
+      return result;
     }
+    Split<T> result = splitLast(node.right);
+    result.left = join(node.left, node, result.left);
+    return result;
+  }
+
+  /**
+   * Copies a subtree node by node, keeping its shape.
+   * @return the root of the copy.
+   */
+  private static <T> Node<T> copy(Node<T> node)
+  {
+    if (node == null)
+      return null;
+
+    Node<T> result = new Node<T>(node.data);
+    result.left = copy(node.left);
+    result.right = copy(node.right);
+    result.height = node.height;
+    result.count = node.count;
+    return result;
   }
 
   /** BALANCING HELPERS */
 
+  /**
+   * Allocates a stack deep enough to hold any path from the
+   * root to a leaf of the current tree.
+   * @return the empty stack.
+   */
+  @SuppressWarnings("unchecked")
+  private Node<T>[] newPath()
+  {
+    return (Node<T>[]) new Node<?>[height(root) + 1];
+  }
+
+  /**
+   * Walks back up a path after an insertion or deletion,
+   * updating heights and counts and rotating unbalanced nodes.
+   * Once a node keeps its height without rotating nothing
+   * above it needs balancing, so only counts are updated.
+   * @param path holds the ancestors of the changed node,
+   * the root first.
+   * @param depth is the number of nodes in path.
+   */
+  private void rebalance(Node<T>[] path, int depth)
+  {
+    for (int i = depth - 1; i >= 0; i--) {
+      Node<T> node = path[i];
+      int oldHeight = node.height;
+
+      /** Update height and count of this ancestor node */
+      update(node);
+      Node<T> balanced = balance(node);
+
+      if (balanced == node && node.height == oldHeight) {
+        /** Only the counts of the remaining ancestors
+         * can still change. */
+        while (--i >= 0)
+          path[i].count = 1 + count(path[i].left) + count(path[i].right);
+        return;
+      }
+
+      /** Hang the rebalanced subtree from the parent. */
+      if (i == 0)
+        root = balanced;
+      else if (path[i - 1].left == node)
+        path[i - 1].left = balanced;
+      else
+        path[i - 1].right = balanced;
+    }
+  }
+
+  /**
+   * Given some node whose height is up to date, checks the 4
+   * cases of imbalance and rotates accordingly. The case is
+   * told apart from the balance of the child, so no comparator
+   * calls are needed.
+   * @param node is the root of the subtree.
+   * @return the new root of the subtree.
+   */
+  private Node<T> balance(Node<T> node)
+  {
+    int balance = getBalance(node);
+
+    /** Left Left and Left Right Cases */
+    if (balance > 1) {
+      if (getBalance(node.left) < 0)
+        node.left = leftRotate(node.left);
+      return rightRotate(node);
+    }
+
+    /** Right Right and Right Left Cases */
+    if (balance < -1) {
+      if (getBalance(node.right) > 0)
+        node.right = rightRotate(node.right);
+      return leftRotate(node);
+    }
+
+    return node;
+  }
+
+
   /** 
    * Given some node return its height.
    * @param n is the node 
@@ -449,9 +896,9 @@ public class BST<T>
     x.right = y;
     y.left = T2;
 
-    /** Update heights */
-    y.height = max(height(y.left), height(y.right)) + 1;
-    x.height = max(height(x.left), height(x.right)) + 1;
+    /** Update heights and counts */
+    update(y);
+    update(x);
 
     /** Return new root */
     return x;
@@ -471,14 +918,35 @@ public class BST<T>
     y.left = x;
     x.right = T2;
 
-    /** Update heights */
-    x.height = max(height(x.left), height(x.right)) + 1;
-    y.height = max(height(y.left), height(y.right)) + 1;
+    /** Update heights and counts */
+    update(x);
+    update(y);
 
     /** Return new root */
     return y;
   }
 
+  /** 
+   * Given some node return the size of its subtree.
+   * @param n is the node 
+   * @return number of nodes under and including n
+   */
+  private int count(Node<T> n) {
+    if (n == null)
+      return 0;
+    return n.count;
+  }
+
+  /**
+   * Recomputes the height and count of a node from
+   * its children.
+   * @param n is the node.
+   */
+  private void update(Node<T> n) {
+    n.height = max(height(n.left), height(n.right)) + 1;
+    n.count = 1 + count(n.left) + count(n.right);
+  }
+
   /**
    * Given some node, get its balance factor.
    * The balance factor is the height of the left subtree
@@ -496,39 +964,26 @@ public class BST<T>
   
   /** INORDER TRAVERSAL METHODS FOR TREESORT**/
 
-  private BST<T> temptree;
-
   /**
    * Given some destination tree, copy the given instance
-   * to the destination.
+   * to the destination. An empty destination ordered by the
+   * same comparator gets a node for node copy in O(n),
+   * otherwise every node is inserted in turn.
    * @param dest is the tree to be copied to.
    * @return the resulting tree.
    */
   public BST<T> copyToTree(BST<T> dest) {
-    temptree = dest;
-    copyToTree(root);
-    return dest;
-  }
+    if (dest.root == null && dest.comparator == this.comparator) {
+      dest.root = copy(root);
+      dest.size = count(dest.root);
+      return dest;
+    }
 
-  /**
-   * The recursive method that inserts the 
-   * current instance to "temptree" inorder.
-   * @param root is the root of given instance.
-   */
-  private void copyToTree(Node<T> root)
-  {
-    if (root == null)
-      return;
- 
-    copyToTree(root.left);
-    temptree.insert(root.data);
-    copyToTree(root.right);
+    for (T data : this)
+      dest.insert(data);
+    return dest;
   }
 
-
-  private T[] testarray; /** Some generic array */
-  private int index;     /** Index kept when inserting to array inorder. */
-
   /**
    * Given some generic array of set size.
    * Is filled inorder with instance of tree
@@ -537,56 +992,168 @@ public class BST<T>
    * @return the filled array.
    */
   public T[] inorderToArray( T[] array )
-	{
-    testarray = array;
-    this.index = 0;
-		inorderToArray(root);
-		return testarray;
-	}
+  {
+    int index = 0;
+    for (T data : this)
+      array[index++] = data;
+    return array;
+  }
 
   /**
-   * The recrusive method that traverses the 
-   * tree instance inorder and inserts to "testarray".
-   * @param root is the starting root node.
+   * Traverses the tree inorder and 
+   * safely returns a generic array.
+   * @param a is the array to fill if it is large enough,
+   * otherwise an array of its type is allocated.
+   * @return the array holding the nodes in order.
    */
-	private void inorderToArray(Node<T> root)
-	{
-		if (root == null)
-			return ;
+  public T[] inorder(T[] a)
+  {
+    int n = count(root);
+    T[] result = (a.length >= n) ? a : Arrays.copyOf(a, n);
+    inorderToArray(result);
+    if (result.length > n)
+      result[n] = null;
+    return result;
+  }
 
-		inorderToArray(root.left);
-		testarray[index++] = root.data;
-		inorderToArray(root.right);
-	}
+  /**
+   * Writes the nodes in order to a sorted file that can later be
+   * mapped through MappedSortedFile.open and searched in place,
+   * without rebuilding the tree. The layout is described there.
+   * @param path is the file to write, replaced if it exists.
+   * @param codec turns the nodes into bytes.
+   * @throws IOException if the file cannot be written.
+   */
+  public void writeSortedFile(Path path, Codec<T> codec) throws IOException
+  {
+    MappedSortedFile.write(path, iterator(), codec);
+  }
 
+  /** LAZY TRAVERSAL */
 
-  private MyArrayList<T> array;       /** Arraylist to be returned */
   /**
-   * Traverses the tree inorder and 
-   * safely returns a generic array.
-   * @param void
-   * @return void
+   * Returns an iterator over the nodes in order. Nodes are
+   * visited lazily with a stack of O(log n) nodes, and any
+   * number of iterators can be used at once. The tree must
+   * not be changed while the iterator is in use.
+   * @return the iterator.
    */
-  public T[] inorder(T[] a)
+  @Override
+  public Iterator<T> iterator()
   {
-    array = new MyArrayList<>();
-    //System.out.println("In-order Traversal:");
-    inorder(root);
-    return array.toArray(a);
+    return new RangeIterator(null, null);
   }
 
-  private void inorder(Node<T> root)
+  /**
+   * Returns a spliterator over the nodes in order. It splits
+   * in half by position, using the subtree counts, so both
+   * halves know their exact size and each starts in O(log n).
+   * @return the spliterator.
+   */
+  @Override
+  public Spliterator<T> spliterator()
   {
-    if (root == null)
-      return;
- 
-    inorder(root.left);
-    array.add(root.data);
-    inorder(root.right);
-   }
-  
+    return new TreeSpliterator(0, count(root));
+  }
 
- 
- 
- 
+  /** @return a sequential stream of the nodes in order. */
+  public Stream<T> stream()
+  {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /** @return a parallel stream of the nodes in order. */
+  public Stream<T> parallelStream()
+  {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  /**
+   * Spliterator over the nodes at positions index to fence - 1.
+   * The traversal stack is only built when the first node is
+   * taken, a started spliterator no longer splits.
+   */
+  private class TreeSpliterator implements Spliterator<T>
+  {
+    private int index;            /** Position of the next node. */
+    private final int fence;      /** Position after the last node. */
+    private Node<T>[] stack;      /** Nodes yet to be returned, null until started. */
+    private int top;              /** Number of nodes on the stack. */
+
+    TreeSpliterator(int index, int fence)
+    {
+      this.index = index;
+      this.fence = fence;
+    }
+
+    /**
+     * Pushes the path to the node at position index, skipping
+     * the subtrees before it by their counts.
+     */
+    private void start()
+    {
+      stack = newPath();
+      int k = index;
+      Node<T> current = root;
+      while (current != null) {
+        int left = count(current.left);
+        if (k <= left)
+          stack[top++] = current;
+        if (k < left) {
+          current = current.left;
+        } else if (k == left) {
+          break;
+        } else {
+          k -= left + 1;
+          current = current.right;
+        }
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action)
+    {
+      if (index >= fence)
+        return false;
+      if (stack == null)
+        start();
+
+      Node<T> node = stack[--top];
+      for (Node<T> current = node.right; current != null; current = current.left)
+        stack[top++] = current;
+      index++;
+      action.accept(node.data);
+      return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit()
+    {
+      int mid = (index + fence) >>> 1;
+      if (stack != null || mid <= index)
+        return null;
+
+      TreeSpliterator prefix = new TreeSpliterator(index, mid);
+      index = mid;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize()
+    {
+      return fence - index;
+    }
+
+    @Override
+    public int characteristics()
+    {
+      return ORDERED | SIZED | SUBSIZED | SORTED;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator()
+    {
+      return comparator;
+    }
+  }
 }
@@ -0,0 +1,906 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A generic B-tree with the API of BST, for trees too large for
+ * one node per key to fit the caches well.
+ *
+ * Every node holds up to MAX_KEYS keys in a sorted array that is
+ * binary searched, so a lookup visits about log_64(n) nodes
+ * instead of log_2(n), and a key costs one array slot instead of
+ * a whole Node. Every node also counts the keys of its subtree so
+ * rank and select stay O(log n). Nodes are split on the way down
+ * when inserting and filled up on the way down when deleting, so
+ * both are done in a single pass from the root.
+ *
+ * The join-based set operations of BST (union, intersection,
+ * difference and their parallel forms) are not provided.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class BTree<T> implements Iterable<T>
+{
+  private static final int MIN_DEGREE = 32;                 /** Least number of children of a non-root node. */
+  private static final int MAX_KEYS = 2 * MIN_DEGREE - 1;   /** Most keys a node can hold. */
+
+  private BNode root;                        /** Root node of the tree, null when empty. */
+  private int height;                        /** Number of levels of nodes. */
+  private int size;                          /** Keeps track of number of keys in tree. */
+  private final Comparator<T> comparator;    /** The comparator ordering the keys. */
+
+  /**
+   * A node of the tree. keys[0..n-1] are sorted and children[i]
+   * holds the keys between keys[i-1] and keys[i].
+   */
+  private static final class BNode
+  {
+    final Object[] keys = new Object[MAX_KEYS];
+    BNode[] children;    /** null for a leaf, otherwise n + 1 of them are used. */
+    int n;               /** Number of keys in this node. */
+    int count;           /** Number of keys in the subtree rooted here. */
+
+    BNode(boolean leaf)
+    {
+      if (!leaf)
+        children = new BNode[MAX_KEYS + 1];
+    }
+
+    boolean isLeaf()
+    {
+      return children == null;
+    }
+  }
+
+  /** Constructors */
+
+  @SuppressWarnings("unchecked")
+  public BTree() {
+    this((Comparator<T>) Comparator.naturalOrder());
+  }
+
+  /** Construct a BTree with a custom Comparator. */
+  public BTree(Comparator<T> comparator) {
+    this.comparator = comparator;
+  }
+
+  /**
+   * Returns the number of keys in the tree.
+   * @return number of keys in the tree.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Clear a tree instance.
+   */
+  public void clear() {
+    this.root = null;
+    this.height = 0;
+    this.size = 0;
+  }
+
+
+  /**
+   * Adds a key to the tree. Full nodes are split on the way
+   * down, so there is always room for the key in the leaf.
+   * @param data is the generic data to be added.
+   * @return true if added, false if an equal key was already
+   * in the tree.
+   */
+  public boolean insert(T data)
+  {
+    if (root == null) {
+      root = new BNode(true);
+      height = 1;
+    }
+
+    if (root.n == MAX_KEYS) {
+      BNode newRoot = new BNode(false);
+      newRoot.children[0] = root;
+      newRoot.count = root.count;
+      splitChild(newRoot, 0);
+      root = newRoot;
+      height++;
+    }
+
+    /** The splits on the way down leave a valid tree whether
+     * or not the key is new, but the counts of the path are
+     * only raised once the key is known to be new. */
+    BNode[] path = new BNode[height];
+    int depth = 0;
+    BNode node = root;
+    while (true) {
+      int i = search(node, data, comparator);
+      if (i >= 0)
+        return false;
+
+      path[depth++] = node;
+      i = -i - 1;
+      if (node.isLeaf()) {
+        System.arraycopy(node.keys, i, node.keys, i + 1, node.n - i);
+        node.keys[i] = data;
+        node.n++;
+        break;
+      }
+
+      if (node.children[i].n == MAX_KEYS) {
+        splitChild(node, i);
+        int cmp = compare(data, node.keys[i]);
+        if (cmp == 0)
+          return false;
+        if (cmp > 0)
+          i++;
+      }
+      node = node.children[i];
+    }
+    addToCounts(path, depth, 1);
+    size++;
+    return true;
+  }
+
+
+  /**
+   * Removes a key from the tree. Every node the search goes
+   * down to is first given at least MIN_DEGREE keys, by moving
+   * one over from a sibling or merging with it, so removing a
+   * key never leaves a node too small.
+   * @param data is the key to be removed.
+   * @return true if the key was found and removed,
+   * false otherwise.
+   */
+  public boolean delete(T data)
+  {
+    if (root == null)
+      return false;
+
+    /** As for insert, the nodes are filled up on the way down
+     * whether or not the key is there, and the counts of the
+     * path are only lowered once it is found. */
+    BNode[] path = new BNode[height];
+    int depth = 0;
+    boolean found;
+    BNode node = root;
+    while (true) {
+      path[depth++] = node;
+      int i = search(node, data, comparator);
+
+      if (node.isLeaf()) {
+        /** Found in a leaf, just close the gap. */
+        found = i >= 0;
+        if (found) {
+          System.arraycopy(node.keys, i + 1, node.keys, i, node.n - i - 1);
+          node.keys[--node.n] = null;
+        }
+        break;
+      }
+
+      if (i >= 0) {
+        /** Found in an internal node. Replace it with its
+         * predecessor or successor and delete that instead,
+         * or merge the children around it if both are small. */
+        BNode left = node.children[i];
+        BNode right = node.children[i + 1];
+        if (left.n >= MIN_DEGREE) {
+          BNode last = left;
+          while (!last.isLeaf())
+            last = last.children[last.n];
+          node.keys[i] = last.keys[last.n - 1];
+          data = key(node.keys[i]);
+          node = left;
+        } else if (right.n >= MIN_DEGREE) {
+          BNode first = right;
+          while (!first.isLeaf())
+            first = first.children[0];
+          node.keys[i] = first.keys[0];
+          data = key(node.keys[i]);
+          node = right;
+        } else {
+          merge(node, i);
+          node = left;
+        }
+        continue;
+      }
+
+      i = -i - 1;
+      node = fill(node, i);
+    }
+
+    if (root.n == 0) {
+      root = root.isLeaf() ? null : root.children[0];
+      height--;
+    }
+    if (!found)
+      return false;
+
+    addToCounts(path, depth, -1);
+    size--;
+    return true;
+  }
+
+  /** Adds delta to the counts of the first depth nodes of the path. */
+  private void addToCounts(BNode[] path, int depth, int delta)
+  {
+    for (int d = 0; d < depth; d++)
+      path[d].count += delta;
+  }
+
+
+  /**
+   * Returns true if the value is contained in the tree
+   * and false otherwise.
+   * @param data the value that's being searched for.
+   * @return true if found, false otherwise.
+   */
+  public boolean contains(T data)
+  {
+    return get(data) != null;
+  }
+
+  /**
+   * Given some key the tree is searched for a key comparing
+   * equal to it.
+   * @param data is the key to get.
+   * @return the key with the matching fields.
+   */
+  public T get(T data)
+  {
+    return find(data, comparator);
+  }
+
+  /**
+   * Searches the tree with the given comparator instead of
+   * the comparator of the tree. Nothing is removed.
+   * @param data is the key to get.
+   * @param comp is the comparator to search with.
+   * @return the key found, null if not in tree.
+   */
+  public T getIf(T data, Comparator<T> comp)
+  {
+    return find(data, comp);
+  }
+
+  /**
+   * Binary searches each node on the path down.
+   * @return the key found, null if not in tree.
+   */
+  private T find(T data, Comparator<T> comp)
+  {
+    BNode node = root;
+    while (node != null) {
+      int i = search(node, data, comp);
+      if (i >= 0)
+        return key(node.keys[i]);
+      node = node.isLeaf() ? null : node.children[-i - 1];
+    }
+    return null;
+  }
+
+  /** ORDER STATISTICS */
+
+  /**
+   * Counts the keys smaller than the given one, in O(log n)
+   * nodes using the subtree counts.
+   * @param data is the key to rank, it need not be in the tree.
+   * @return the number of keys in the tree less than data.
+   */
+  public int rank(T data)
+  {
+    int rank = 0;
+    BNode node = root;
+    while (node != null) {
+      int i = search(node, data, comparator);
+      boolean found = i >= 0;
+      if (!found)
+        i = -i - 1;
+
+      rank += i + countBefore(node, i);
+      if (found)
+        return rank + (node.isLeaf() ? 0 : node.children[i].count);
+      node = node.isLeaf() ? null : node.children[i];
+    }
+    return rank;
+  }
+
+  /**
+   * Counts the keys smaller than or equal to the given one.
+   * @param data is the key to rank.
+   * @return the number of keys in the tree at most data.
+   */
+  private int rankInclusive(T data)
+  {
+    int rank = 0;
+    BNode node = root;
+    while (node != null) {
+      int i = search(node, data, comparator);
+      if (i >= 0)
+        return rank + i + 1 + countBefore(node, i + 1);
+
+      i = -i - 1;
+      rank += i + countBefore(node, i);
+      node = node.isLeaf() ? null : node.children[i];
+    }
+    return rank;
+  }
+
+  /**
+   * Finds the k-th smallest key of the tree in O(log n) nodes.
+   * @param k is the position, 0 for the smallest key.
+   * @return the key at position k in order.
+   * @throws IndexOutOfBoundsException if k is not below size.
+   */
+  public T select(int k)
+  {
+    if (k < 0 || k >= size)
+      throw new IndexOutOfBoundsException("k: " + k + ", size: " + size);
+
+    BNode node = root;
+    while (!node.isLeaf()) {
+      int i = 0;
+      while (k >= node.children[i].count) {
+        k -= node.children[i].count;
+        if (k == 0)
+          return key(node.keys[i]);
+        k--;
+        i++;
+      }
+      node = node.children[i];
+    }
+    return key(node.keys[k]);
+  }
+
+  /**
+   * Counts the keys between lo and hi, both included,
+   * in O(log n) nodes.
+   * @param lo is the lower bound.
+   * @param hi is the upper bound.
+   * @return the number of keys in [lo, hi], 0 if lo > hi.
+   */
+  public int countRange(T lo, T hi)
+  {
+    if (comparator.compare(lo, hi) > 0)
+      return 0;
+    return rankInclusive(hi) - rank(lo);
+  }
+
+  /**
+   * @param data is the key to compare with.
+   * @return the greatest key less than or equal to data,
+   * null if there is none.
+   */
+  public T floor(T data)
+  {
+    T result = null;
+    BNode node = root;
+    while (node != null) {
+      int i = search(node, data, comparator);
+      if (i >= 0)
+        return key(node.keys[i]);
+
+      i = -i - 1;
+      if (i > 0)
+        result = key(node.keys[i - 1]);
+      node = node.isLeaf() ? null : node.children[i];
+    }
+    return result;
+  }
+
+  /**
+   * @param data is the key to compare with.
+   * @return the least key greater than or equal to data,
+   * null if there is none.
+   */
+  public T ceiling(T data)
+  {
+    T result = null;
+    BNode node = root;
+    while (node != null) {
+      int i = search(node, data, comparator);
+      if (i >= 0)
+        return key(node.keys[i]);
+
+      i = -i - 1;
+      if (i < node.n)
+        result = key(node.keys[i]);
+      node = node.isLeaf() ? null : node.children[i];
+    }
+    return result;
+  }
+
+  /**
+   * Returns an iterator over the keys between lo and hi, both
+   * included, in order. The tree must not be changed while the
+   * iterator is in use.
+   * @param lo is the lower bound, null for no lower bound.
+   * @param hi is the upper bound, null for no upper bound.
+   * @return the iterator.
+   */
+  public Iterator<T> range(T lo, T hi)
+  {
+    return new RangeIterator(lo, hi);
+  }
+
+  /**
+   * Returns an iterator over the keys in order. The tree must
+   * not be changed while the iterator is in use.
+   * @return the iterator.
+   */
+  @Override
+  public Iterator<T> iterator()
+  {
+    return new RangeIterator(null, null);
+  }
+
+  /**
+   * Returns a spliterator over the keys in order. It splits in
+   * half by position, and each half starts with a select, in
+   * O(log n) nodes, when its first key is taken.
+   * @return the spliterator.
+   */
+  @Override
+  public Spliterator<T> spliterator()
+  {
+    return new TreeSpliterator(0, size);
+  }
+
+  /** @return a sequential stream of the keys in order. */
+  public Stream<T> stream()
+  {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /** @return a parallel stream of the keys in order. */
+  public Stream<T> parallelStream()
+  {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  /**
+   * Spliterator over the keys at positions index to fence - 1.
+   * The iterator is only made when the first key is taken, a
+   * started spliterator no longer splits.
+   */
+  private class TreeSpliterator implements Spliterator<T>
+  {
+    private int index;              /** Position of the next key. */
+    private final int fence;        /** Position after the last key. */
+    private Iterator<T> iterator;   /** Iterator from index on, null until started. */
+
+    TreeSpliterator(int index, int fence)
+    {
+      this.index = index;
+      this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action)
+    {
+      if (index >= fence)
+        return false;
+      if (iterator == null)
+        iterator = new RangeIterator(select(index), null);
+
+      index++;
+      action.accept(iterator.next());
+      return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit()
+    {
+      int mid = (index + fence) >>> 1;
+      if (iterator != null || mid <= index)
+        return null;
+
+      TreeSpliterator prefix = new TreeSpliterator(index, mid);
+      index = mid;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize()
+    {
+      return fence - index;
+    }
+
+    @Override
+    public int characteristics()
+    {
+      return ORDERED | SIZED | SUBSIZED | SORTED;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator()
+    {
+      return comparator;
+    }
+  }
+
+  /**
+   * Inorder iterator over a bounded range. The stack holds a
+   * node per level along with the index of the next key of
+   * that node to return.
+   */
+  private class RangeIterator implements Iterator<T>
+  {
+    private final BNode[] nodes = new BNode[height];   /** Nodes on the path. */
+    private final int[] indexes = new int[height];     /** Next key of each of them. */
+    private int top;                                   /** Number of nodes on the stack. */
+    private final T hi;                                /** Upper bound, null if none. */
+
+    RangeIterator(T lo, T hi)
+    {
+      this.hi = hi;
+
+      /** Push the path to the first key not below lo. */
+      BNode node = root;
+      while (node != null) {
+        int i = 0;
+        if (lo != null) {
+          i = search(node, lo, comparator);
+          if (i >= 0) {
+            push(node, i);
+            break;
+          }
+          i = -i - 1;
+        }
+        push(node, i);
+        node = node.isLeaf() ? null : node.children[i];
+      }
+      skipFinished();
+    }
+
+    public boolean hasNext()
+    {
+      return top > 0
+        && (hi == null || compare(hi, nodes[top - 1].keys[indexes[top - 1]]) >= 0);
+    }
+
+    public T next()
+    {
+      if (!hasNext()) throw new NoSuchElementException();
+
+      /** Take the next key and push the leftmost path
+       * of the child after it. */
+      BNode node = nodes[top - 1];
+      int i = indexes[top - 1]++;
+      if (!node.isLeaf())
+        for (BNode child = node.children[i + 1]; child != null;
+             child = child.isLeaf() ? null : child.children[0])
+          push(child, 0);
+      skipFinished();
+      return key(node.keys[i]);
+    }
+
+    private void push(BNode node, int index)
+    {
+      nodes[top] = node;
+      indexes[top++] = index;
+    }
+
+    /** Pops the nodes with no keys left to return. */
+    private void skipFinished()
+    {
+      while (top > 0 && indexes[top - 1] >= nodes[top - 1].n)
+        top--;
+    }
+  }
+
+  /** BULK OPERATIONS */
+
+  /**
+   * Replaces the contents of the tree with the given keys in
+   * O(n), filling the nodes directly instead of inserting the
+   * keys one by one.
+   * @param sorted holds the keys in strictly increasing order
+   * of the comparator of the tree.
+   * @throws IllegalArgumentException if sorted is not strictly
+   * increasing.
+   */
+  public void buildFromSorted(T[] sorted)
+  {
+    for (int i = 1; i < sorted.length; i++) {
+      if (comparator.compare(sorted[i - 1], sorted[i]) >= 0)
+        throw new IllegalArgumentException("Array is not strictly increasing at index " + i);
+    }
+
+    clear();
+    if (sorted.length == 0)
+      return;
+
+    int levels = 1;
+    while (maxKeys(levels) < sorted.length)
+      levels++;
+    root = build(sorted, 0, sorted.length, levels, 2);
+    height = levels;
+    size = sorted.length;
+  }
+
+  /**
+   * Builds a subtree of the given number of levels out of the
+   * n keys of sorted starting at from. The keys are spread
+   * evenly over the fewest children that can hold them, but no
+   * fewer than minChildren, so every node ends up with at least
+   * MIN_DEGREE - 1 keys.
+   * @return the root of the subtree.
+   */
+  private BNode build(T[] sorted, int from, int n, int levels, int minChildren)
+  {
+    BNode node = new BNode(levels == 1);
+    node.count = n;
+    if (levels == 1) {
+      System.arraycopy(sorted, from, node.keys, 0, n);
+      node.n = n;
+      return node;
+    }
+
+    long perChild = maxKeys(levels - 1) + 1;
+    int children = (int) Math.max(minChildren, (n + perChild) / perChild);
+    int inChildren = n - (children - 1);
+    for (int c = 0; c < children; c++) {
+      int childKeys = inChildren / children + (c < inChildren % children ? 1 : 0);
+      node.children[c] = build(sorted, from, childKeys, levels - 1, MIN_DEGREE);
+      from += childKeys;
+      if (c < children - 1)
+        node.keys[c] = sorted[from++];
+    }
+    node.n = children - 1;
+    return node;
+  }
+
+  /** @return the most keys a subtree of the given number of levels can hold. */
+  private static long maxKeys(int levels)
+  {
+    long capacity = 1;
+    for (int l = 0; l < levels; l++)
+      capacity *= MAX_KEYS + 1;
+    return capacity - 1;
+  }
+
+  /**
+   * Copies a subtree node by node, keeping its shape.
+   * @return the root of the copy.
+   */
+  private static BNode copy(BNode node)
+  {
+    BNode result = new BNode(node.isLeaf());
+    System.arraycopy(node.keys, 0, result.keys, 0, node.n);
+    if (!node.isLeaf()) {
+      for (int c = 0; c <= node.n; c++)
+        result.children[c] = copy(node.children[c]);
+    }
+    result.n = node.n;
+    result.count = node.count;
+    return result;
+  }
+
+  /** INORDER TRAVERSAL METHODS */
+
+  /**
+   * Given some destination tree, copy the given instance
+   * to the destination. An empty destination ordered by the
+   * same comparator gets a node for node copy in O(n),
+   * otherwise every key is inserted in turn.
+   * @param dest is the tree to be copied to.
+   * @return the resulting tree.
+   */
+  public BTree<T> copyToTree(BTree<T> dest) {
+    if (dest.root == null && dest.comparator == this.comparator) {
+      if (root != null) {
+        dest.root = copy(root);
+        dest.height = height;
+        dest.size = size;
+      }
+      return dest;
+    }
+
+    for (T data : this)
+      dest.insert(data);
+    return dest;
+  }
+
+  /**
+   * Given some generic array of set size.
+   * Is filled inorder with instance of tree
+   * and returned.
+   * @param array is the array to be filled.
+   * @return the filled array.
+   */
+  public T[] inorderToArray( T[] array )
+  {
+    int index = 0;
+    for (T data : this)
+      array[index++] = data;
+    return array;
+  }
+
+  /**
+   * Traverses the tree inorder and
+   * safely returns a generic array.
+   * @param a is the array to fill if it is large enough,
+   * otherwise an array of its type is allocated.
+   * @return the array holding the keys in order.
+   */
+  public T[] inorder(T[] a)
+  {
+    T[] result = (a.length >= size) ? a : Arrays.copyOf(a, size);
+    inorderToArray(result);
+    if (result.length > size)
+      result[size] = null;
+    return result;
+  }
+
+  /**
+   * Writes the keys in order to a sorted file that can later be
+   * mapped through MappedSortedFile.open and searched in place,
+   * without rebuilding the tree. The layout is described there.
+   * @param path is the file to write, replaced if it exists.
+   * @param codec turns the keys into bytes.
+   * @throws IOException if the file cannot be written.
+   */
+  public void writeSortedFile(Path path, Codec<T> codec) throws IOException
+  {
+    MappedSortedFile.write(path, iterator(), codec);
+  }
+
+  /** NODE HELPERS */
+
+  /**
+   * Binary searches the keys of a node.
+   * @return the index of data if found, otherwise
+   * (-(insertion point) - 1) as Arrays.binarySearch.
+   */
+  @SuppressWarnings("unchecked")
+  private int search(BNode node, T data, Comparator<T> comp)
+  {
+    return Arrays.binarySearch((T[]) node.keys, 0, node.n, data, comp);
+  }
+
+  /**
+   * Splits the full child i of node around its middle key,
+   * which moves up into node.
+   */
+  private void splitChild(BNode node, int i)
+  {
+    BNode left = node.children[i];
+    BNode right = new BNode(left.isLeaf());
+    right.n = MIN_DEGREE - 1;
+    System.arraycopy(left.keys, MIN_DEGREE, right.keys, 0, MIN_DEGREE - 1);
+    if (!left.isLeaf())
+      System.arraycopy(left.children, MIN_DEGREE, right.children, 0, MIN_DEGREE);
+
+    System.arraycopy(node.children, i + 1, node.children, i + 2, node.n - i);
+    System.arraycopy(node.keys, i, node.keys, i + 1, node.n - i);
+    node.children[i + 1] = right;
+    node.keys[i] = left.keys[MIN_DEGREE - 1];
+    node.n++;
+
+    Arrays.fill(left.keys, MIN_DEGREE - 1, MAX_KEYS, null);
+    if (!left.isLeaf())
+      Arrays.fill(left.children, MIN_DEGREE, MAX_KEYS + 1, null);
+    left.n = MIN_DEGREE - 1;
+    recount(right);
+    left.count -= right.count + 1;
+  }
+
+  /**
+   * Makes sure child i of node has at least MIN_DEGREE keys,
+   * moving a key over from a sibling or merging with one.
+   * @return the node the search should go down to.
+   */
+  private BNode fill(BNode node, int i)
+  {
+    BNode child = node.children[i];
+    if (child.n >= MIN_DEGREE)
+      return child;
+
+    if (i > 0 && node.children[i - 1].n >= MIN_DEGREE) {
+      /** Rotate the last key of the left sibling up
+       * and the key between them down. */
+      BNode sibling = node.children[i - 1];
+      System.arraycopy(child.keys, 0, child.keys, 1, child.n);
+      child.keys[0] = node.keys[i - 1];
+      node.keys[i - 1] = sibling.keys[sibling.n - 1];
+      sibling.keys[sibling.n - 1] = null;
+      int moved = 1;
+      if (!child.isLeaf()) {
+        System.arraycopy(child.children, 0, child.children, 1, child.n + 1);
+        child.children[0] = sibling.children[sibling.n];
+        sibling.children[sibling.n] = null;
+        moved += child.children[0].count;
+      }
+      child.n++;
+      sibling.n--;
+      child.count += moved;
+      sibling.count -= moved;
+      return child;
+    }
+
+    if (i < node.n && node.children[i + 1].n >= MIN_DEGREE) {
+      /** Rotate the first key of the right sibling up
+       * and the key between them down. */
+      BNode sibling = node.children[i + 1];
+      child.keys[child.n] = node.keys[i];
+      node.keys[i] = sibling.keys[0];
+      System.arraycopy(sibling.keys, 1, sibling.keys, 0, sibling.n - 1);
+      sibling.keys[sibling.n - 1] = null;
+      int moved = 1;
+      if (!child.isLeaf()) {
+        child.children[child.n + 1] = sibling.children[0];
+        System.arraycopy(sibling.children, 1, sibling.children, 0, sibling.n);
+        sibling.children[sibling.n] = null;
+        moved += child.children[child.n + 1].count;
+      }
+      child.n++;
+      sibling.n--;
+      child.count += moved;
+      sibling.count -= moved;
+      return child;
+    }
+
+    if (i == node.n)
+      i--;
+    merge(node, i);
+    return node.children[i];
+  }
+
+  /**
+   * Merges child i + 1 of node and the key between them
+   * into child i. Both children must have MIN_DEGREE - 1 keys.
+   */
+  private void merge(BNode node, int i)
+  {
+    BNode left = node.children[i];
+    BNode right = node.children[i + 1];
+    left.keys[left.n] = node.keys[i];
+    System.arraycopy(right.keys, 0, left.keys, left.n + 1, right.n);
+    if (!left.isLeaf())
+      System.arraycopy(right.children, 0, left.children, left.n + 1, right.n + 1);
+    left.n += right.n + 1;
+    left.count += right.count + 1;
+
+    System.arraycopy(node.keys, i + 1, node.keys, i, node.n - i - 1);
+    System.arraycopy(node.children, i + 2, node.children, i + 1, node.n - i - 1);
+    node.n--;
+    node.keys[node.n] = null;
+    node.children[node.n + 1] = null;
+  }
+
+  /** Sets the count of a node from its keys and children. */
+  private void recount(BNode node)
+  {
+    node.count = node.n + countBefore(node, node.n + 1);
+  }
+
+  /** @return the number of keys in the first i children of node. */
+  private int countBefore(BNode node, int i)
+  {
+    if (node.isLeaf())
+      return 0;
+
+    int count = 0;
+    for (int c = 0; c < i; c++)
+      count += node.children[c].count;
+    return count;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T key(Object key)
+  {
+    return (T) key;
+  }
+
+  private int compare(T data, Object key)
+  {
+    return comparator.compare(data, key(key));
+  }
+}
@@ -0,0 +1,206 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An array list for very large lists, indexed by long and stored in
+ * fixed-size chunks rather than one array.
+ *
+ * MyArrayList grows by copying its whole array into a larger one,
+ * which for hundreds of millions of elements means a long pause, a
+ * moment where both arrays are alive, and arrays large enough to be
+ * humongous objects in G1. Here a full list only allocates one more
+ * chunk of CHUNK_SIZE elements; the elements already added are
+ * never copied, and only the directory of chunks, a small array of
+ * references, is ever grown. The size is a long, so the list can
+ * hold more than 2^31 elements. Removing from the end keeps one
+ * empty chunk past the last element, so adding and removing
+ * around a chunk boundary does not allocate a chunk every time.
+ *
+ * Has the same add/get/set/iterator contract as MyArrayList, with
+ * long indexes.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class BigArrayList<E> implements Iterable<E> {
+
+    private static final int CHUNK_SHIFT = 14;               /** log2 of the chunk size. */
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;  /** Elements in a chunk. */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;    /** Index bits within a chunk. */
+
+    private Object[][] chunks;                 /** Directory of chunks, unused ones null. */
+    private long size;                         /** Number of elements in the list. */
+
+    public BigArrayList() {
+        // Chunks are only allocated as elements are added
+        this.chunks = new Object[8][];
+        this.size = 0;
+    }
+
+
+    public boolean add(E element) {
+        // Adds element to the end, allocating a new chunk
+        // when the last one is full
+        int chunk = (int) (this.size >>> CHUNK_SHIFT);
+        int offset = (int) this.size & CHUNK_MASK;
+        if (offset == 0) {
+            if (chunk == this.chunks.length) {
+                this.chunks = Arrays.copyOf(this.chunks, this.chunks.length * 2);
+            }
+            if (this.chunks[chunk] == null) {
+                this.chunks[chunk] = new Object[CHUNK_SIZE];
+            }
+        }
+        this.chunks[chunk][offset] = element;
+        this.size++;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long index) {
+        // Returns the element from the given index in the list.
+        checkIndex(index);
+        return (E) this.chunks[(int) (index >>> CHUNK_SHIFT)][(int) index & CHUNK_MASK];
+    }
+
+    public E set(long index, E element) {
+        // Returns the element from the given index
+        // And replaces that element at the given index with given element
+        checkIndex(index);
+        Object[] chunk = this.chunks[(int) (index >>> CHUNK_SHIFT)];
+        @SuppressWarnings("unchecked")
+        E replaced = (E) chunk[(int) index & CHUNK_MASK];
+        chunk[(int) index & CHUNK_MASK] = element;
+        return replaced;
+    }
+
+    public E removeLast() {
+        // Removes and returns the last element
+        if (this.size == 0) {
+            throw new NoSuchElementException("List is empty.");
+        }
+        E last = get(this.size - 1);
+        this.size--;
+        this.chunks[(int) (this.size >>> CHUNK_SHIFT)][(int) this.size & CHUNK_MASK] = null;
+        releaseSpare();
+        return last;
+    }
+
+    private void removeAt(long index) {
+        // Shifts the elements after index down a slot, a chunk at
+        // a time, carrying the first element of each following
+        // chunk over to the end of the one before
+        int c = (int) (index >>> CHUNK_SHIFT);
+        int offset = (int) index & CHUNK_MASK;
+        int lastChunk = (int) ((this.size - 1) >>> CHUNK_SHIFT);
+        for (; c < lastChunk; c++, offset = 0) {
+            Object[] chunk = this.chunks[c];
+            System.arraycopy(chunk, offset + 1, chunk, offset, CHUNK_MASK - offset);
+            chunk[CHUNK_MASK] = this.chunks[c + 1][0];
+        }
+        int end = (int) (this.size - 1) & CHUNK_MASK;
+        System.arraycopy(this.chunks[lastChunk], offset + 1, this.chunks[lastChunk], offset, end - offset);
+        this.chunks[lastChunk][end] = null;
+        this.size--;
+        releaseSpare();
+    }
+
+    private void releaseSpare() {
+        // Once the last chunk in use is left empty, the spare chunk
+        // after it has gone unused for a whole chunk of removals
+        // and is dropped. The empty one is kept as the new spare
+        if (((int) this.size & CHUNK_MASK) == 0) {
+            int spare = (int) (this.size >>> CHUNK_SHIFT) + 1;
+            if (spare < this.chunks.length) {
+                this.chunks[spare] = null;
+            }
+        }
+    }
+
+    public long indexOf(E element) {
+        // Returns the index if element exists in the list, -1 if does not exist.
+        // Scans each chunk as a plain array
+        long base = 0;
+        for (int c = 0; base < this.size; c++, base += CHUNK_SIZE) {
+            Object[] chunk = this.chunks[c];
+            int end = (int) Math.min(CHUNK_SIZE, this.size - base);
+            for (int i = 0; i < end; i++) {
+                if (element.equals(chunk[i])) {
+                    return base + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(E element) {
+        // Returns true when element is in the list, false otherwise.
+        return indexOf(element) >= 0;
+    }
+
+    public void clear() {
+        // Drops every chunk, keeping the directory
+        Arrays.fill(this.chunks, null);
+        this.size = 0;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if empty, false if not.
+        return this.size == 0;
+    }
+
+    public long size() {
+        // Returns the size.
+        return this.size;
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= this.size) {
+            throw new ArrayIndexOutOfBoundsException("index >= size: " + index + " >= " + this.size);
+        }
+    }
+
+
+    /** Returns an instance of the Iterator class below. */
+    @Override
+    public Iterator<E> iterator() {
+        return new BigArrayListIterator();
+    }
+
+    /** Walks the chunks in order, keeping the current chunk
+     * so most elements cost a single array read.
+     */
+    private class BigArrayListIterator implements Iterator<E> {
+
+        private long current = 0;  /** Starts from the first element */
+        private long last = -1;    /** Index of the element last returned */
+        private Object[] chunk;    /** Chunk holding the current element */
+
+        public boolean hasNext() {
+            return current < size;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int offset = (int) current & CHUNK_MASK;
+            if (offset == 0 || chunk == null) {
+                chunk = chunks[(int) (current >>> CHUNK_SHIFT)];
+            }
+            last = current++;
+            return (E) chunk[offset];
+        }
+
+        /**
+         * Removes the element last returned, by position, shifting
+         * the elements after it down.
+         */
+        public void remove() {
+            if (last < 0) throw new IllegalStateException();
+            removeAt(last);
+            current = last;
+            last = -1;
+        }
+    }
+}
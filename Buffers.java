@@ -0,0 +1,83 @@
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Helpers for the direct and mapped buffers of OffHeapHashMap,
+ * MappedHashMapSnapshot, MappedSortedFile and MappedRecordList,
+ * and for writing the files they map.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+final class Buffers {
+
+    /** Writes the contents of a file through its channel. */
+    interface ChannelWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+
+    private Buffers() {
+    }
+
+    /**
+     * Releases the memory of a direct or mapped buffer without
+     * waiting for the garbage collector, through the cleaner the
+     * JDK exposes in sun.misc.Unsafe. If that is unavailable the
+     * memory is released once the buffer is collected.
+     *
+     * @param buffer the buffer, which must not be used afterwards.
+     */
+    static void free(ByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(field.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Left to the garbage collector
+        }
+    }
+
+    /**
+     * Writes a file so that a reader opening it sees either the old
+     * file or the whole new one, and a reader that already mapped
+     * the old file keeps it. The contents go to a temporary file in
+     * the same directory, which is forced to disk and then renamed
+     * over the target in one atomic move.
+     *
+     * @param path is the file to write, replaced if it exists.
+     * @param writer writes the contents into the channel.
+     * @throws IOException if the file cannot be written, in which
+     * case the target is left as it was.
+     */
+    static void writeAtomically(Path path, ChannelWriter writer) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + "."
+                + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                writer.write(channel);
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Writes all the remaining bytes of src to the channel. */
+    static void writeFully(FileChannel channel, ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+}
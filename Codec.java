@@ -0,0 +1,52 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns keys or values to and from the bytes stored in a file,
+ * used by MappedHashMapSnapshot and MappedSortedFile. Equal
+ * objects must encode to equal bytes.
+ *
+ * @param <T> type of the objects encoded.
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public interface Codec<T> {
+
+    byte[] encode(T value);
+
+    T decode(byte[] bytes);
+
+    /** Codec for strings as UTF-8. */
+    Codec<String> STRING = new Codec<String>() {
+        public byte[] encode(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        public String decode(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /** Codec for integers as 4 little-endian bytes. */
+    Codec<Integer> INTEGER = new Codec<Integer>() {
+        public byte[] encode(Integer value) {
+            return ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+        }
+
+        public Integer decode(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        }
+    };
+
+    /** Codec for longs as 8 little-endian bytes. */
+    Codec<Long> LONG = new Codec<Long>() {
+        public byte[] encode(Long value) {
+            return ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(value).array();
+        }
+
+        public Long decode(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getLong();
+        }
+    };
+}
@@ -0,0 +1,325 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe ordered set with the API of BST, backed by a lazy
+ * skip list rather than a tree so that no rebalancing has to be
+ * coordinated between threads.
+ *
+ * contains and get never lock or retry, they only follow volatile
+ * links. insert and delete lock just the predecessors of the node
+ * at each of its levels, validate them and retry if another thread
+ * got there first, so updates to distant keys do not contend. A
+ * node is logically deleted by marking it before it is unlinked,
+ * and only counts as present once it is linked at every level.
+ *
+ * Iteration is weakly consistent: it returns the nodes in order,
+ * never fails because of concurrent updates, and may or may not
+ * see changes made while it runs.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class ConcurrentBST<T> implements Iterable<T>
+{
+  private static final int MAX_LEVEL = 32;   /** Number of levels of the head and tail. */
+
+  private final SkipNode<T> head;            /** Sentinel before every node. */
+  private final SkipNode<T> tail;            /** Sentinel after every node. */
+  private final LongAdder size;              /** Keeps track of number of nodes. */
+  private final Comparator<T> comparator;    /** The comparator ordering the nodes. */
+
+  /** Constructors */
+
+  @SuppressWarnings("unchecked")
+  public ConcurrentBST() {
+    this((Comparator<T>) Comparator.naturalOrder());
+  }
+
+  /** Construct a ConcurrentBST with a custom Comparator. */
+  public ConcurrentBST(Comparator<T> comparator) {
+    this.comparator = comparator;
+    this.size = new LongAdder();
+    this.tail = new SkipNode<T>(null, MAX_LEVEL - 1, SkipNode.TAIL);
+    this.head = new SkipNode<T>(null, MAX_LEVEL - 1, SkipNode.HEAD);
+    for (int level = 0; level < MAX_LEVEL; level++)
+      head.next.set(level, tail);
+    head.fullyLinked = tail.fullyLinked = true;
+  }
+
+  /**
+   * Returns the number of nodes. While writers are active
+   * this is only an estimate.
+   * @return number of nodes.
+   */
+  public int size() {
+    return (int) size.sum();
+  }
+
+
+  /**
+   * Adds a node.
+   * @param data is the generic data to be added.
+   * @return true if added, false if an equal node was already
+   * present.
+   */
+  @SuppressWarnings("unchecked")
+  public boolean insert(T data)
+  {
+    int topLevel = randomLevel();
+    SkipNode<T>[] preds = (SkipNode<T>[]) new SkipNode<?>[MAX_LEVEL];
+    SkipNode<T>[] succs = (SkipNode<T>[]) new SkipNode<?>[MAX_LEVEL];
+
+    while (true) {
+      int found = find(data, preds, succs);
+      if (found != -1) {
+        /** A duplicate, unless it is being deleted, in
+         * which case try again once it is gone. Wait for
+         * it to be fully linked so the false result is
+         * never seen before the node itself. */
+        SkipNode<T> node = succs[found];
+        if (!node.marked) {
+          while (!node.fullyLinked)
+            Thread.onSpinWait();
+          return false;
+        }
+        continue;
+      }
+
+      int highestLocked = -1;
+      try {
+        /** Lock the predecessors and check they still
+         * link to the successors found. */
+        boolean valid = true;
+        for (int level = 0; valid && level <= topLevel; level++) {
+          SkipNode<T> pred = preds[level];
+          SkipNode<T> succ = succs[level];
+          pred.lock.lock();
+          highestLocked = level;
+          valid = !pred.marked && !succ.marked && pred.next.get(level) == succ;
+        }
+        if (!valid)
+          continue;
+
+        SkipNode<T> node = new SkipNode<T>(data, topLevel, SkipNode.DATA);
+        for (int level = 0; level <= topLevel; level++)
+          node.next.set(level, succs[level]);
+        for (int level = 0; level <= topLevel; level++)
+          preds[level].next.set(level, node);
+        node.fullyLinked = true;
+        size.increment();
+        return true;
+      } finally {
+        for (int level = 0; level <= highestLocked; level++)
+          preds[level].lock.unlock();
+      }
+    }
+  }
+
+
+  /**
+   * Removes a given node if found.
+   * @param data is the node to be removed.
+   * @return true if the node was found and removed,
+   * false otherwise.
+   */
+  @SuppressWarnings("unchecked")
+  public boolean delete(T data)
+  {
+    SkipNode<T>[] preds = (SkipNode<T>[]) new SkipNode<?>[MAX_LEVEL];
+    SkipNode<T>[] succs = (SkipNode<T>[]) new SkipNode<?>[MAX_LEVEL];
+    SkipNode<T> victim = null;
+    boolean isMarked = false;
+
+    while (true) {
+      int found = find(data, preds, succs);
+      if (!isMarked) {
+        /** Only a fully linked, unmarked node found at its
+         * own top level can be deleted. */
+        if (found == -1)
+          return false;
+        victim = succs[found];
+        if (!victim.fullyLinked || victim.topLevel != found || victim.marked)
+          return false;
+
+        victim.lock.lock();
+        if (victim.marked) {
+          victim.lock.unlock();
+          return false;
+        }
+        victim.marked = true;
+        isMarked = true;
+      }
+
+      int highestLocked = -1;
+      try {
+        boolean valid = true;
+        for (int level = 0; valid && level <= victim.topLevel; level++) {
+          SkipNode<T> pred = preds[level];
+          pred.lock.lock();
+          highestLocked = level;
+          valid = !pred.marked && pred.next.get(level) == victim;
+        }
+        if (!valid)
+          continue;
+
+        for (int level = victim.topLevel; level >= 0; level--)
+          preds[level].next.set(level, victim.next.get(level));
+        victim.lock.unlock();
+        size.decrement();
+        return true;
+      } finally {
+        for (int level = 0; level <= highestLocked; level++)
+          preds[level].lock.unlock();
+      }
+    }
+  }
+
+
+  /**
+   * Returns true if the value is present and false otherwise,
+   * without locking.
+   * @param data the value that's being searched for.
+   * @return true if found, false otherwise.
+   */
+  public boolean contains(T data)
+  {
+    return search(data) != null;
+  }
+
+  /**
+   * Searches for a node comparing equal to the given one,
+   * without locking.
+   * @param data is the node to get.
+   * @return the node with the matching fields.
+   */
+  public T get(T data)
+  {
+    SkipNode<T> node = search(data);
+    return (node == null) ? null : node.data;
+  }
+
+  /**
+   * Returns a weakly consistent iterator over the nodes in order.
+   * @return the iterator.
+   */
+  @Override
+  public Iterator<T> iterator()
+  {
+    return new Iterator<T>() {
+      private SkipNode<T> next = advance(head);
+
+      /** @return the first present node after node. */
+      private SkipNode<T> advance(SkipNode<T> node) {
+        SkipNode<T> current = node.next.get(0);
+        while (current.kind == SkipNode.DATA && current.marked)
+          current = current.next.get(0);
+        return current;
+      }
+
+      public boolean hasNext() {
+        return next.kind == SkipNode.DATA;
+      }
+
+      public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        SkipNode<T> node = next;
+        next = advance(node);
+        return node.data;
+      }
+    };
+  }
+
+  /** PRIVATE HELPERS */
+
+  /**
+   * Walks down from the top level recording, at every level,
+   * the last node before data and the first one not before it.
+   * @return the highest level data was found at, -1 if not found.
+   */
+  private int find(T data, SkipNode<T>[] preds, SkipNode<T>[] succs)
+  {
+    int found = -1;
+    SkipNode<T> pred = head;
+    for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+      SkipNode<T> current = pred.next.get(level);
+      int cmp;
+      while ((cmp = compare(data, current)) > 0) {
+        pred = current;
+        current = pred.next.get(level);
+      }
+      if (found == -1 && cmp == 0)
+        found = level;
+      preds[level] = pred;
+      succs[level] = current;
+    }
+    return found;
+  }
+
+  /**
+   * Lock-free search for a present node, stopping at the first
+   * level the node is found at.
+   * @return the node, null if it is not present.
+   */
+  private SkipNode<T> search(T data)
+  {
+    SkipNode<T> pred = head;
+    for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+      SkipNode<T> current = pred.next.get(level);
+      int cmp;
+      while ((cmp = compare(data, current)) > 0) {
+        pred = current;
+        current = pred.next.get(level);
+      }
+      if (cmp == 0)
+        return (current.fullyLinked && !current.marked) ? current : null;
+    }
+    return null;
+  }
+
+  /** Compares data with a node, the sentinels being below
+   * and above everything. */
+  private int compare(T data, SkipNode<T> node)
+  {
+    if (node.kind != SkipNode.DATA)
+      return (node.kind == SkipNode.TAIL) ? -1 : 1;
+    return comparator.compare(data, node.data);
+  }
+
+  /** @return a random top level, level l being half as
+   * likely as level l - 1. */
+  private static int randomLevel()
+  {
+    int bits = ThreadLocalRandom.current().nextInt();
+    return Math.min(Integer.numberOfTrailingZeros(bits), MAX_LEVEL - 1);
+  }
+
+  /**
+   * A node of the skip list, linked at levels 0 to topLevel.
+   */
+  private static final class SkipNode<T>
+  {
+    static final int DATA = 0, HEAD = 1, TAIL = 2;
+
+    final T data;
+    final int topLevel;
+    final int kind;                                  /** DATA or one of the sentinels. */
+    final AtomicReferenceArray<SkipNode<T>> next;    /** Successor at each level. */
+    final ReentrantLock lock = new ReentrantLock();
+    volatile boolean marked;                         /** Set once logically deleted. */
+    volatile boolean fullyLinked;                    /** Set once linked at every level. */
+
+    SkipNode(T data, int topLevel, int kind)
+    {
+      this.data = data;
+      this.topLevel = topLevel;
+      this.kind = kind;
+      this.next = new AtomicReferenceArray<>(topLevel + 1);
+    }
+  }
+}
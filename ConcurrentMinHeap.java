@@ -0,0 +1,306 @@
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe priority queue made of several MinHeaps, each
+ * with its own lock (a MultiQueue).
+ *
+ * insert puts the element into a random shard, trying another one
+ * if the lock is taken. removeMin looks at the cached minimum of two
+ * random shards without locking and removes from the smaller one,
+ * so producers and consumers rarely meet on the same lock. The
+ * price is that removal order is relaxed: the element removed is
+ * close to the minimum, not always the minimum itself. A queue made
+ * by strict() has a single shard and removes in exact order.
+ *
+ * take waits for an element using a Condition rather than monitors,
+ * so a waiting virtual thread does not pin its carrier, and inserts
+ * only touch that lock while someone is waiting.
+ *
+ * Null elements are not allowed.
+ *
+ * @param <T> type of the elements.
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class ConcurrentMinHeap<T> {
+
+    private static final int SHARDS_PER_THREAD = 2;   /** Default shards per available processor. */
+
+    private final Shard<T>[] shards;           /** The independently locked heaps. */
+    private final Comparator<? super T> comparator;   /** The order of the elements. */
+    private final AtomicInteger size;          /** Number of elements in all shards. */
+    private final AtomicInteger waiters;       /** Number of threads waiting in take. */
+    private final ReentrantLock waitLock;      /** Guards notEmpty. */
+    private final Condition notEmpty;          /** Signalled when an element is added. */
+
+    /**
+     * A MinHeap with its lock, publishing its minimum so other
+     * threads can compare shards without locking.
+     */
+    @SuppressWarnings("serial")
+    private static final class Shard<T> extends ReentrantLock {
+        final MinHeap<T> heap;
+        volatile T min;                        /** Smallest element, null when empty. */
+
+        Shard(Comparator<? super T> comparator) {
+            this.heap = new MinHeap<>(comparator);
+        }
+    }
+
+    /** Constructor with two shards per processor, in natural order. */
+    @SuppressWarnings("unchecked")
+    public ConcurrentMinHeap() {
+        this((Comparator<? super T>) Comparator.naturalOrder());
+    }
+
+    /** Construct a queue with two shards per processor. */
+    public ConcurrentMinHeap(Comparator<? super T> comparator) {
+        this(SHARDS_PER_THREAD * Runtime.getRuntime().availableProcessors(), comparator);
+    }
+
+    /**
+     * Construct a queue with the given number of shards. More
+     * shards mean less contention but a more relaxed order.
+     *
+     * @param shardCount the number of heaps, 1 for exact order.
+     * @param comparator the order of the elements.
+     * @throws IllegalArgumentException if shardCount is not positive.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentMinHeap(int shardCount, Comparator<? super T> comparator) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive.");
+        }
+
+        this.comparator = comparator;
+        this.shards = (Shard<T>[]) new Shard<?>[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard<>(comparator);
+        }
+        this.size = new AtomicInteger();
+        this.waiters = new AtomicInteger();
+        this.waitLock = new ReentrantLock();
+        this.notEmpty = waitLock.newCondition();
+    }
+
+    /**
+     * Makes a queue that always removes the exact minimum, with
+     * a single shard behind one lock.
+     *
+     * @param comparator the order of the elements.
+     * @return the queue.
+     */
+    public static <T> ConcurrentMinHeap<T> strict(Comparator<? super T> comparator) {
+        return new ConcurrentMinHeap<>(1, comparator);
+    }
+
+
+    /**
+     * Adds an element to a random shard.
+     *
+     * @param element is the element to be added.
+     * @throws IllegalArgumentException if element is null.
+     */
+    public void insert(T element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Argument cannot be null.");
+        }
+
+        /** Try a few shards before waiting for one. */
+        Shard<T> shard = randomShard();
+        for (int attempt = 1; !shard.tryLock(); attempt++) {
+            if (attempt >= shards.length) {
+                shard.lock();
+                break;
+            }
+            shard = randomShard();
+        }
+        try {
+            shard.heap.insert(element);
+            shard.min = shard.heap.peek();
+        } finally {
+            shard.unlock();
+        }
+
+        size.incrementAndGet();
+        if (waiters.get() > 0) {
+            waitLock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+    }
+
+
+    /**
+     * Removes an element close to the minimum, the exact minimum
+     * if the queue was made by strict().
+     *
+     * @return the element removed, null if the queue is empty.
+     */
+    public T poll() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (size.get() > 0) {
+            /** Pick the smaller of two random shards. */
+            Shard<T> first = shards[random.nextInt(shards.length)];
+            Shard<T> second = shards[random.nextInt(shards.length)];
+            T firstMin = first.min;
+            T secondMin = second.min;
+            Shard<T> shard = (secondMin == null || (firstMin != null
+                    && comparator.compare(firstMin, secondMin) <= 0)) ? first : second;
+
+            if (shard.min == null) {
+                /** Both were empty, look through all shards
+                 * so the queue is never reported empty while
+                 * one of them still holds an element. */
+                shard = null;
+                int start = random.nextInt(shards.length);
+                for (int i = 0; i < shards.length && shard == null; i++) {
+                    Shard<T> candidate = shards[(start + i) % shards.length];
+                    if (candidate.min != null) {
+                        shard = candidate;
+                    }
+                }
+                if (shard == null) {
+                    return null;
+                }
+                shard.lock();
+            } else if (shards.length == 1) {
+                shard.lock();
+            } else if (!shard.tryLock()) {
+                continue;
+            }
+
+            try {
+                if (!shard.heap.isEmpty()) {
+                    T element = shard.heap.removeMin();
+                    shard.min = shard.heap.isEmpty() ? null : shard.heap.peek();
+                    size.decrementAndGet();
+                    return element;
+                }
+            } finally {
+                shard.unlock();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes an element close to the minimum.
+     *
+     * @return the element removed.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public T removeMin() {
+        T element = poll();
+        if (element == null) {
+            throw new NoSuchElementException("Heap is empty.");
+        }
+        return element;
+    }
+
+    /**
+     * Removes an element close to the minimum, waiting for one to
+     * be inserted if the queue is empty.
+     *
+     * @return the element removed.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public T take() throws InterruptedException {
+        T element = poll();
+        if (element != null) {
+            return element;
+        }
+
+        waitLock.lockInterruptibly();
+        waiters.incrementAndGet();
+        try {
+            while ((element = poll()) == null) {
+                notEmpty.await();
+            }
+        } finally {
+            waiters.decrementAndGet();
+            waitLock.unlock();
+        }
+        wakeNextIfNotEmpty();
+        return element;
+    }
+
+    /**
+     * Removes an element close to the minimum, waiting up to the
+     * given time for one to be inserted if the queue is empty.
+     *
+     * @param timeout how long to wait.
+     * @param unit the unit of timeout.
+     * @return the element removed, null if the time ran out.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        T element = poll();
+        if (element != null) {
+            return element;
+        }
+
+        long nanos = unit.toNanos(timeout);
+        waitLock.lockInterruptibly();
+        waiters.incrementAndGet();
+        try {
+            while ((element = poll()) == null) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+        } finally {
+            waiters.decrementAndGet();
+            waitLock.unlock();
+        }
+        wakeNextIfNotEmpty();
+        return element;
+    }
+
+    /**
+     * @return number of elements, exact only while no other
+     * thread is changing the queue.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return true if there are no elements, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /** PRIVATE HELPERS */
+
+    private Shard<T> randomShard() {
+        return shards[ThreadLocalRandom.current().nextInt(shards.length)];
+    }
+
+    /**
+     * An insert signals a single waiter, so a waiter that got an
+     * element passes the signal on if elements are left, in case
+     * other inserts signalled while it held the lock.
+     */
+    private void wakeNextIfNotEmpty() {
+        if (waiters.get() > 0 && size.get() > 0) {
+            waitLock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+    }
+}
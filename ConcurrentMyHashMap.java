@@ -0,0 +1,369 @@
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implements a thread-safe HashMap with linear probing.
+ *
+ * The map is split into segments picked by the high bits of
+ * a mixed hashcode, each being a small linear probing table
+ * with its own lock. Writers only lock the segment their key
+ * falls into and reads never lock: a table is published through
+ * a volatile field and its slots are read with volatile
+ * semantics, while entries keep their key fixed and only the
+ * value changes. A removed entry keeps its key with a null value,
+ * just as a removed MapEntry does in MyHashMap.
+ *
+ * Resizing is done per segment, by whichever writer fills it,
+ * so a resize rebuilds only a fraction of the map, only the
+ * writers of that segment wait for it, and readers keep probing
+ * the old table until the new one is published.
+ *
+ * Has the same put/get/remove/containsKey/size contract as
+ * MyHashMap.
+ *
+ * @param <K> type of keys.
+ * @param <V> type of values.
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class ConcurrentMyHashMap<K, V> {
+
+    private static final int DEFAULT_SEGMENTS = 16;      /** Default number of segments. */
+    private static final int STARTING_SIZE = 16;         /** Default starting size of a segment. */
+    private static final double MAX_LOAD_FACTOR = 0.67;  /** Constant load factor, removed entries included. */
+
+    private final Segment<K, V>[] segments;    /** The independently locked tables. */
+    private final int segmentShift;            /** Shift of the hash to get the segment index. */
+    private final int segmentMask;             /** Number of segments - 1. */
+
+    /** Constructor initalizes the default number of segments. */
+    public ConcurrentMyHashMap() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Construct a map with at least the given number of segments,
+     * which bounds how many writers can work at the same time.
+     *
+     * @param concurrencyLevel the expected number of concurrent writers.
+     * @throws IllegalArgumentException if concurrencyLevel is not positive.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentMyHashMap(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level must be positive.");
+        }
+
+        int count = 1;
+        int bits = 0;
+        while (count < concurrencyLevel && count < (1 << 16)) {
+            count <<= 1;
+            bits++;
+        }
+
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[count];
+        this.segmentShift = 32 - bits;
+        this.segmentMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(STARTING_SIZE);
+        }
+    }
+
+
+    /**
+     * Adds the given key-value pair to the HashMap.
+     * If the key is already in the HashMap, the value is overwritten.
+     *
+     * @param key is the key to inserted.
+     * @param value is the value to be inserted.
+     * @throws IllegalArgumentException if key or value is null.
+     * @return null if the key was not already in the map.  If it was in the
+     * map, return the old value associated with it.
+     */
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Argument cannot be null.");
+        }
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value);
+    }
+
+
+    /**
+     * Removes the value associated with the key from the map.
+     *
+     * @param key is the key to remove.
+     * @throws IllegalArgumentException if key is null.
+     * @return null if the key was not already in the map.  If it was in the
+     * map, return the old value associated with it.
+     */
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Argument cannot be null.");
+        }
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+
+    /**
+     * Gets the value associated with the given key without locking.
+     *
+     * @param key is the key to be looked up.
+     * @throws IllegalArgumentException if key is null.
+     * @return the value associated with the given key.
+     */
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Argument cannot be null.");
+        }
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+
+    /**
+     * Returns whether or not the key is in the map.
+     *
+     * @param key is the key to be looked up.
+     * @throws IllegalArgumentException if key is null
+     * @return true if the key is in the map, false otherwise.
+     */
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * The sum of the segment sizes. While writers are active
+     * this is only an estimate.
+     *
+     * @return number of elements in the HashMap.
+     */
+    public int size() {
+        int result = 0;
+        for (Segment<K, V> segment : segments) {
+            result += segment.size;
+        }
+        return result;
+    }
+
+    /**
+     * The keys present while each segment was traversed, writes
+     * made during the traversal may or may not be seen.
+     *
+     * @return the keys within the HashMap as an ArrayList.
+     */
+    public MyArrayList<K> keyList() {
+        MyArrayList<K> result = new MyArrayList<>(size());
+        for (Segment<K, V> segment : segments) {
+            AtomicReferenceArray<Entry<K, V>> table = segment.table;
+            for (int i = 0; i < table.length(); i++) {
+                Entry<K, V> entry = table.get(i);
+                if (entry != null && entry.value != null) {
+                    result.add(entry.key);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The values present while each segment was traversed, writes
+     * made during the traversal may or may not be seen.
+     *
+     * @return an Arraylist of all the values within the HashMap.
+     */
+    public MyArrayList<V> values() {
+        MyArrayList<V> result = new MyArrayList<>(size());
+        for (Segment<K, V> segment : segments) {
+            AtomicReferenceArray<Entry<K, V>> table = segment.table;
+            for (int i = 0; i < table.length(); i++) {
+                Entry<K, V> entry = table.get(i);
+                V value = (entry == null ? null : entry.value);
+                if (value != null) {
+                    result.add(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** PRIVATE HELPERS */
+
+    /**
+     * Mixes the hashcode of the key, the high bits pick the
+     * segment and the low bits pick the slot within it.
+     *
+     * @param key the key to hash.
+     * @return the mixed hash.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @param hash the mixed hash of a key.
+     * @return the segment the key belongs to.
+     */
+    private Segment<K, V> segmentFor(int hash) {
+        return segments[(hash >>> segmentShift) & segmentMask];
+    }
+
+    /**
+     * A linear probing table guarded by its own lock. Only
+     * writers take the lock, readers go through the volatile
+     * table reference.
+     */
+    @SuppressWarnings("serial")
+    private static final class Segment<K, V> extends ReentrantLock {
+
+        volatile AtomicReferenceArray<Entry<K, V>> table; /** Current table of the segment. */
+        volatile int size;                     /** Number of live entries. */
+        int used;                              /** Number of non-null slots, removed ones included. */
+
+        Segment(int capacity) {
+            this.table = new AtomicReferenceArray<>(capacity);
+        }
+
+        V get(Object key, int hash) {
+            AtomicReferenceArray<Entry<K, V>> tab = this.table;
+            int mask = tab.length() - 1;
+            int index = hash & mask;
+            Entry<K, V> entry;
+
+            /** The table is never full, so an empty slot ends
+             * every search.
+             */
+            while ((entry = tab.get(index)) != null) {
+                if (entry.hash == hash && entry.key.equals(key)) {
+                    return entry.value;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        V put(K key, int hash, V value) {
+            lock();
+            try {
+                if ((double) (used + 1) / table.length() > MAX_LOAD_FACTOR) {
+                    resize();
+                }
+
+                AtomicReferenceArray<Entry<K, V>> tab = this.table;
+                int mask = tab.length() - 1;
+                int index = hash & mask;
+                int firstRemoved = -1;
+                Entry<K, V> entry;
+
+                while ((entry = tab.get(index)) != null) {
+                    if (entry.hash == hash && entry.key.equals(key)) {
+                        /** Overwrite in place, reviving the entry if
+                         * it had been removed.
+                         */
+                        V result = entry.value;
+                        entry.value = value;
+                        if (result == null) {
+                            size++;
+                        }
+                        return result;
+                    }
+                    if (firstRemoved == -1 && entry.value == null) {
+                        // Record first removed
+                        firstRemoved = index;
+                    }
+                    index = (index + 1) & mask;
+                }
+
+                if (firstRemoved != -1) {
+                    tab.set(firstRemoved, new Entry<>(key, hash, value));
+                } else {
+                    tab.set(index, new Entry<>(key, hash, value));
+                    used++;
+                }
+                size++;
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        V remove(Object key, int hash) {
+            lock();
+            try {
+                AtomicReferenceArray<Entry<K, V>> tab = this.table;
+                int mask = tab.length() - 1;
+                int index = hash & mask;
+                Entry<K, V> entry;
+
+                while ((entry = tab.get(index)) != null) {
+                    if (entry.hash == hash && entry.key.equals(key)) {
+                        V result = entry.value;
+                        if (result != null) {
+                            entry.value = null;
+                            size--;
+                        }
+                        return result;
+                    }
+                    index = (index + 1) & mask;
+                }
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Copies the live entries into a new table sized for them
+         * and publishes it. Entries are shared with the old table,
+         * so a value written after publishing is still seen by a
+         * reader probing the old one. Called with the lock held.
+         */
+        private void resize() {
+            AtomicReferenceArray<Entry<K, V>> old = this.table;
+
+            /** Removed entries are dropped here, so the table only
+             * grows when live entries would fill half of it.
+             */
+            int capacity = old.length();
+            if ((double) (size + 1) / capacity > MAX_LOAD_FACTOR / 2) {
+                capacity *= 2;
+            }
+
+            AtomicReferenceArray<Entry<K, V>> tab = new AtomicReferenceArray<>(capacity);
+            int mask = capacity - 1;
+            int count = 0;
+            for (int i = 0; i < old.length(); i++) {
+                Entry<K, V> entry = old.get(i);
+                if (entry != null && entry.value != null) {
+                    int index = entry.hash & mask;
+                    while (tab.get(index) != null) {
+                        index = (index + 1) & mask;
+                    }
+                    tab.set(index, entry);
+                    count++;
+                }
+            }
+
+            this.used = count;
+            this.table = tab;
+        }
+    }
+
+    /**
+     * An entry of a segment table, the value is null once removed.
+     */
+    private static final class Entry<K, V> {
+        final K key;
+        final int hash;
+        volatile V value;
+
+        Entry(K key, int hash, V value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.DoubleConsumer;
+
+/**
+ * An array list of unboxed doubles, with the surface of MyArrayList.
+ *
+ * The elements are kept in a double[], so they take 8 bytes each
+ * instead of a reference and a Double, get(i) reads the array
+ * directly, and the scanning loops run over a primitive array the
+ * JIT can vectorize.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class DoubleArrayList {
+
+    private static final double[] EMPTY = {};          /** Shared by lists that never had an element. */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private double[] array;
+    private int size;
+
+    public DoubleArrayList() {
+        // The array is only allocated by the first add
+        this.array = EMPTY;
+        this.size = 0;
+    }
+
+    public DoubleArrayList(int capacity) {
+        // Initialise an empty list with room for capacity elements
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        }
+        this.array = (capacity == 0) ? EMPTY : new double[capacity];
+        this.size = 0;
+    }
+
+
+    public boolean add(double element) {
+        // Adds element to the end of the list, growing the array when full
+        if (this.size == this.array.length) {
+            grow(this.size + 1);
+        }
+        this.array[this.size++] = element;
+        return true;
+    }
+
+    public boolean addAll(double[] elements) {
+        // Adds all the elements to the end of the list with a single copy
+        if (elements.length == 0) {
+            return false;
+        }
+        if (this.size + elements.length > this.array.length) {
+            grow(this.size + elements.length);
+        }
+        System.arraycopy(elements, 0, this.array, this.size, elements.length);
+        this.size += elements.length;
+        return true;
+    }
+
+    public boolean contains(double element) {
+        // Returns true when element is in the list, false otherwise.
+        return indexOf(element) >= 0;
+    }
+
+    public void clear() {
+        // Keeps the array, only the size is reset
+        this.size = 0;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if empty, false if not.
+        return this.size == 0;
+    }
+
+    public int size() {
+        // Returns the size.
+        return this.size;
+    }
+
+    public double get(int index) {
+        // Returns the element from the given index in the list.
+        checkIndex(index);
+        return this.array[index];
+    }
+
+    public int indexOf(double element) {
+        // Returns the index if element exists in the list, -1 if does not exist.
+        // Compared by bits like Double.equals, so NaN is found
+        long bits = Double.doubleToLongBits(element);
+        double[] a = this.array;
+        for (int i = 0; i < this.size; i++) {
+            if (Double.doubleToLongBits(a[i]) == bits) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean remove(double element) {
+        // Returns true if element removed from list, false if not.
+        // Shifts the elements after it down with a single copy
+        int index = indexOf(element);
+        if (index >= 0) {
+            System.arraycopy(this.array, index + 1, this.array, index, this.size - index - 1);
+            this.size--;
+            return true;
+        }
+        return false;
+    }
+
+    public double set(int index, double element) {
+        // Returns the element from the given index
+        // And replaces that element at the given index with given element
+        checkIndex(index);
+        double replaced = this.array[index];
+        this.array[index] = element;
+        return replaced;
+    }
+
+    public void forEach(DoubleConsumer action) {
+        // Passes every element to action in order, without boxing
+        double[] a = this.array;
+        for (int i = 0; i < this.size; i++) {
+            action.accept(a[i]);
+        }
+    }
+
+    public double[] toArray() {
+        // Returns a copy of the elements
+        return Arrays.copyOf(this.array, this.size);
+    }
+
+    public String toString() {
+        // Returns a String representation of the elements inside the list.
+        if (this.isEmpty()) {
+            return "Empty";
+        }
+
+        StringBuilder ret = new StringBuilder("");
+        for (int i = 0; i < this.size; i++) {
+            ret.append("Index: " + i + "    Element: " + this.array[i] + "\n");
+        }
+
+        ret.deleteCharAt(ret.length() - 1);
+
+        return ret.toString();
+    }
+
+    private void grow(int minCapacity) {
+        // Doubles the array, or more if minCapacity needs it
+        int capacity = Math.max(Math.max(this.array.length * 2, DEFAULT_CAPACITY), minCapacity);
+        this.array = Arrays.copyOf(this.array, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new ArrayIndexOutOfBoundsException("index >= size: " + index + " >= " + this.size);
+        }
+    }
+
+
+    /** Returns an instance of the Iterator class below. */
+    public PrimitiveIterator.OfDouble iterator() {
+        return new DoubleArrayListIterator();
+    }
+
+    /** Allows the list to be iterated without boxing
+     * through nextDouble. The list is not Iterable, as for each
+     * loops would box every element.
+     */
+    private class DoubleArrayListIterator implements PrimitiveIterator.OfDouble {
+
+        private int current = 0; /** Starts from the first element */
+        private int last = -1;   /** Index of the element last returned */
+
+        public boolean hasNext() {
+            return current < size;
+        }
+
+        public double nextDouble() {
+            if (!hasNext()) throw new NoSuchElementException();
+            last = current++;
+            return array[last];
+        }
+
+        /**
+         * Removes the element last returned.
+         */
+        public void remove() {
+            if (last < 0) throw new IllegalStateException();
+            System.arraycopy(array, last + 1, array, last, size - last - 1);
+            size--;
+            current = last;
+            last = -1;
+        }
+    }
+}
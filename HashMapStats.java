@@ -0,0 +1,129 @@
+
+/**
+ * Statistics of a MyHashMap: a histogram of probe lengths seen by
+ * getAddIndex, how full the table is and how much of it is taken
+ * by removed entries, and how often and for how long it resized.
+ *
+ * Only maps that called enableStats() record anything, for all
+ * other maps the cost is a single null check per operation. The
+ * load factor and tombstone ratio are worked out in O(1) from the
+ * counters the map keeps. Like MyHashMap this class is not
+ * thread-safe, values read from another thread, such as through
+ * JMX, are estimates.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class HashMapStats implements HashMapStatsMBean {
+
+    private static final int BUCKETS = 33;     /** Length 0, then one bucket per power of two. */
+
+    private final MyHashMap<?, ?> map;         /** The map these statistics are of. */
+    private final long[] histogram;            /** Probe counts by bucket. */
+    private long probeCount;                   /** Number of probe sequences recorded. */
+    private long probeTotal;                   /** Sum of the recorded probe lengths. */
+    private int maxProbe;                      /** Longest probe sequence recorded. */
+    private long resizeCount;                  /** Number of resizes recorded. */
+    private long resizeNanos;                  /** Time spent in the recorded resizes. */
+
+    /** Constructor, used by MyHashMap.enableStats(). */
+    HashMapStats(MyHashMap<?, ?> map) {
+        this.map = map;
+        this.histogram = new long[BUCKETS];
+    }
+
+    /**
+     * Records a probe sequence.
+     * @param length number of slots probed past the home slot.
+     */
+    void recordProbe(int length) {
+        histogram[32 - Integer.numberOfLeadingZeros(length)]++;
+        probeCount++;
+        probeTotal += length;
+        if (length > maxProbe) {
+            maxProbe = length;
+        }
+    }
+
+    /**
+     * Records a resize.
+     * @param nanos time the resize took.
+     */
+    void recordResize(long nanos) {
+        resizeCount++;
+        resizeNanos += nanos;
+    }
+
+    @Override
+    public long getProbeCount() {
+        return probeCount;
+    }
+
+    @Override
+    public double getMeanProbeLength() {
+        return probeCount == 0 ? 0 : (double) probeTotal / probeCount;
+    }
+
+    @Override
+    public int getMaxProbeLength() {
+        return maxProbe;
+    }
+
+    @Override
+    public long[] getProbeHistogram() {
+        return histogram.clone();
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return (double) map.size() / map.capacity();
+    }
+
+    @Override
+    public double getTombstoneRatio() {
+        return (double) map.removedCount() / map.capacity();
+    }
+
+    @Override
+    public int getSize() {
+        return map.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return map.capacity();
+    }
+
+    @Override
+    public long getResizeCount() {
+        return resizeCount;
+    }
+
+    @Override
+    public long getResizeTimeNanos() {
+        return resizeNanos;
+    }
+
+    @Override
+    public void reset() {
+        java.util.Arrays.fill(histogram, 0);
+        probeCount = 0;
+        probeTotal = 0;
+        maxProbe = 0;
+        resizeCount = 0;
+        resizeNanos = 0;
+    }
+
+    public String toString() {
+        StringBuilder ret = new StringBuilder();
+        ret.append("size: ").append(getSize())
+           .append(", capacity: ").append(getCapacity())
+           .append(", load factor: ").append(String.format("%.3f", getLoadFactor()))
+           .append(", tombstone ratio: ").append(String.format("%.3f", getTombstoneRatio()))
+           .append(", resizes: ").append(resizeCount)
+           .append(" (").append(resizeNanos / 1_000_000).append(" ms)")
+           .append(", mean probe: ").append(String.format("%.3f", getMeanProbeLength()))
+           .append(", max probe: ").append(maxProbe);
+        return ret.toString();
+    }
+}
@@ -0,0 +1,48 @@
+
+/**
+ * Management interface of HashMapStats, so the statistics of a
+ * MyHashMap can be registered with the platform MBean server and
+ * read from JConsole, Mission Control or a JFR recording of MBean
+ * attributes.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public interface HashMapStatsMBean {
+
+    /** @return number of probe sequences recorded. */
+    long getProbeCount();
+
+    /** @return mean number of slots probed past the home slot. */
+    double getMeanProbeLength();
+
+    /** @return longest probe sequence recorded. */
+    int getMaxProbeLength();
+
+    /**
+     * @return probe sequence counts by length, bucket 0 holding
+     * length 0 and bucket b holding lengths 2^(b-1) to 2^b - 1.
+     */
+    long[] getProbeHistogram();
+
+    /** @return number of entries over the number of slots. */
+    double getLoadFactor();
+
+    /** @return number of removed entries over the number of slots. */
+    double getTombstoneRatio();
+
+    /** @return number of entries in the map. */
+    int getSize();
+
+    /** @return number of slots in the table. */
+    int getCapacity();
+
+    /** @return number of times the table was resized. */
+    long getResizeCount();
+
+    /** @return total nanoseconds spent resizing. */
+    long getResizeTimeNanos();
+
+    /** Clears the probe and resize counters. */
+    void reset();
+}
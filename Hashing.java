@@ -0,0 +1,53 @@
+/**
+ * Helpers shared by the primitive-keyed maps IntIntMap,
+ * LongLongMap and LongObjectMap, whose tables are a power of two
+ * long and indexed by the low bits of a mixed key.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+final class Hashing {
+
+    static final int MAX_CAPACITY = 1 << 30;   /** Largest power-of-two table length an array can hold. */
+
+    private Hashing() {
+    }
+
+    /**
+     * Spreads the bits of the key so that sequential keys
+     * do not end up in one long run of the table.
+     *
+     * @param key the key to hash.
+     * @return the mixed hash, to be masked to the table length.
+     */
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Spreads the bits of the key, all 64 of which count, over
+     * the low bits used for the index.
+     *
+     * @param key the key to hash.
+     * @return the mixed hash, to be masked to the table length.
+     */
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int x = (int) (h ^ (h >>> 32));
+        return x ^ (x >>> 16);
+    }
+
+    /**
+     * @param length the current power-of-two table length.
+     * @return the doubled length.
+     * @throws OutOfMemoryError if the table is already as long
+     * as a power-of-two table can be.
+     */
+    static int grow(int length) {
+        if (length >= MAX_CAPACITY) {
+            throw new OutOfMemoryError("Table cannot grow past " + MAX_CAPACITY + " slots");
+        }
+        return length * 2;
+    }
+}
@@ -0,0 +1,237 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * A d-ary min heap whose elements can be found again, laid out
+ * like MinHeap. insert returns a Handle that always knows where its
+ * element sits in the array, since every sift updates the handles
+ * it moves, so the priority of an element already in the heap can
+ * be changed, or the element removed, in O(log n) without searching
+ * for it or inserting a duplicate.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class IndexedMinHeap<T> {
+    private Handle<T>[] Heap;
+    private int size;
+    private final int shift;                       // log2 of the arity
+    private final Comparator<? super T> comparator;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int DEFAULT_ARITY = 4;
+
+    // An element in the heap along with its position in
+    // the array, -1 once it has left the heap
+    public static final class Handle<T> {
+        private T value;
+        private int index;
+
+        private Handle(T value)
+        {
+            this.value = value;
+        }
+
+        public T getValue()
+        {
+            return value;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public IndexedMinHeap()
+    {
+        this(DEFAULT_CAPACITY, DEFAULT_ARITY, (Comparator<? super T>) Comparator.naturalOrder());
+    }
+
+    public IndexedMinHeap(Comparator<? super T> comparator)
+    {
+        this(DEFAULT_CAPACITY, DEFAULT_ARITY, comparator);
+    }
+
+    // capacity is only the initial capacity, the heap grows
+    // as needed. arity must be a power of two, 2 or more.
+    @SuppressWarnings("unchecked")
+    public IndexedMinHeap(int capacity, int arity, Comparator<? super T> comparator)
+    {
+        if (arity < 2 || Integer.bitCount(arity) != 1) {
+            throw new IllegalArgumentException("Arity must be a power of two, 2 or more: " + arity);
+        }
+        this.Heap = (Handle<T>[]) new Handle<?>[Math.max(capacity, 1)];
+        this.size = 0;
+        this.shift = Integer.numberOfTrailingZeros(arity);
+        this.comparator = comparator;
+    }
+
+    private int parent(int pos)
+    {
+        return (pos - 1) >>> shift;
+    }
+
+    private int firstChild(int pos)
+    {
+        return (pos << shift) + 1;
+    }
+
+    // Function to put a handle at pos, keeping its
+    // index in sync
+    private void place(int pos, Handle<T> handle)
+    {
+        Heap[pos] = handle;
+        handle.index = pos;
+    }
+
+    // Function to move handle up from the hole at pos
+    private void siftUp(int pos, Handle<T> handle)
+    {
+        while (pos > 0) {
+            int parent = parent(pos);
+            if (comparator.compare(handle.value, Heap[parent].value) >= 0) {
+                break;
+            }
+            place(pos, Heap[parent]);
+            pos = parent;
+        }
+        place(pos, handle);
+    }
+
+    // Function to move handle down from the hole at pos
+    private void siftDown(int pos, Handle<T> handle)
+    {
+        int child;
+        while ((child = firstChild(pos)) < size) {
+            int last = Math.min(child + (1 << shift), size);
+            Handle<T> min = Heap[child];
+            for (int c = child + 1; c < last; c++) {
+                if (comparator.compare(Heap[c].value, min.value) < 0) {
+                    min = Heap[c];
+                    child = c;
+                }
+            }
+
+            if (comparator.compare(min.value, handle.value) >= 0) {
+                break;
+            }
+            place(pos, min);
+            pos = child;
+        }
+        place(pos, handle);
+    }
+
+    // Function to insert a node into the heap, returning
+    // the handle to change or remove it with later
+    public Handle<T> insert(T element)
+    {
+        if (size == Heap.length) {
+            Heap = Arrays.copyOf(Heap, Heap.length + (Heap.length >> 1) + 1);
+        }
+        Handle<T> handle = new Handle<>(element);
+        siftUp(size++, handle);
+        return handle;
+    }
+
+    // Function to return the minimum element
+    // without removing it
+    public T peek()
+    {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty.");
+        }
+        return Heap[0].value;
+    }
+
+    // Function to remove and return the minimum
+    // element from the heap
+    public T removeMin()
+    {
+        T popped = peek();
+        removeAt(0);
+        return popped;
+    }
+
+    // Function to check that a handle is in this heap
+    public boolean contains(Handle<T> handle)
+    {
+        return handle.index >= 0 && handle.index < size && Heap[handle.index] == handle;
+    }
+
+    // Function to give an element a smaller or equal
+    // value, moving it towards the root
+    public void decreaseKey(Handle<T> handle, T value)
+    {
+        check(handle);
+        if (comparator.compare(value, handle.value) > 0) {
+            throw new IllegalArgumentException("New value is greater than the current one.");
+        }
+        handle.value = value;
+        siftUp(handle.index, handle);
+    }
+
+    // Function to give an element a greater or equal
+    // value, moving it towards the leaves
+    public void increaseKey(Handle<T> handle, T value)
+    {
+        check(handle);
+        if (comparator.compare(value, handle.value) < 0) {
+            throw new IllegalArgumentException("New value is less than the current one.");
+        }
+        handle.value = value;
+        siftDown(handle.index, handle);
+    }
+
+    // Function to give an element any new value
+    public void changeKey(Handle<T> handle, T value)
+    {
+        if (comparator.compare(value, handle.value) <= 0) {
+            decreaseKey(handle, value);
+        } else {
+            increaseKey(handle, value);
+        }
+    }
+
+    // Function to remove an element from anywhere in the
+    // heap, returning false if it was no longer in it
+    public boolean remove(Handle<T> handle)
+    {
+        if (!contains(handle)) {
+            return false;
+        }
+        removeAt(handle.index);
+        return true;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    // Function to fill the hole at pos with the last
+    // node, which may have to move either way
+    private void removeAt(int pos)
+    {
+        Heap[pos].index = -1;
+        Handle<T> last = Heap[--size];
+        Heap[size] = null;
+        if (pos == size) {
+            return;
+        }
+
+        siftDown(pos, last);
+        if (last.index == pos) {
+            siftUp(pos, last);
+        }
+    }
+
+    private void check(Handle<T> handle)
+    {
+        if (!contains(handle)) {
+            throw new NoSuchElementException("Handle is not in the heap.");
+        }
+    }
+}
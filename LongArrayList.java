@@ -0,0 +1,198 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * An array list of unboxed longs, with the surface of MyArrayList.
+ *
+ * The elements are kept in a long[], so they take 8 bytes each
+ * instead of a reference and a Long, get(i) reads the array
+ * directly, and the scanning loops run over a primitive array the
+ * JIT can vectorize.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class LongArrayList {
+
+    private static final long[] EMPTY = {};            /** Shared by lists that never had an element. */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private long[] array;
+    private int size;
+
+    public LongArrayList() {
+        // The array is only allocated by the first add
+        this.array = EMPTY;
+        this.size = 0;
+    }
+
+    public LongArrayList(int capacity) {
+        // Initialise an empty list with room for capacity elements
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        }
+        this.array = (capacity == 0) ? EMPTY : new long[capacity];
+        this.size = 0;
+    }
+
+
+    public boolean add(long element) {
+        // Adds element to the end of the list, growing the array when full
+        if (this.size == this.array.length) {
+            grow(this.size + 1);
+        }
+        this.array[this.size++] = element;
+        return true;
+    }
+
+    public boolean addAll(long[] elements) {
+        // Adds all the elements to the end of the list with a single copy
+        if (elements.length == 0) {
+            return false;
+        }
+        if (this.size + elements.length > this.array.length) {
+            grow(this.size + elements.length);
+        }
+        System.arraycopy(elements, 0, this.array, this.size, elements.length);
+        this.size += elements.length;
+        return true;
+    }
+
+    public boolean contains(long element) {
+        // Returns true when element is in the list, false otherwise.
+        return indexOf(element) >= 0;
+    }
+
+    public void clear() {
+        // Keeps the array, only the size is reset
+        this.size = 0;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if empty, false if not.
+        return this.size == 0;
+    }
+
+    public int size() {
+        // Returns the size.
+        return this.size;
+    }
+
+    public long get(int index) {
+        // Returns the element from the given index in the list.
+        checkIndex(index);
+        return this.array[index];
+    }
+
+    public int indexOf(long element) {
+        // Returns the index if element exists in the list, -1 if does not exist.
+        long[] a = this.array;
+        for (int i = 0; i < this.size; i++) {
+            if (a[i] == element) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean remove(long element) {
+        // Returns true if element removed from list, false if not.
+        // Shifts the elements after it down with a single copy
+        int index = indexOf(element);
+        if (index >= 0) {
+            System.arraycopy(this.array, index + 1, this.array, index, this.size - index - 1);
+            this.size--;
+            return true;
+        }
+        return false;
+    }
+
+    public long set(int index, long element) {
+        // Returns the element from the given index
+        // And replaces that element at the given index with given element
+        checkIndex(index);
+        long replaced = this.array[index];
+        this.array[index] = element;
+        return replaced;
+    }
+
+    public void forEach(LongConsumer action) {
+        // Passes every element to action in order, without boxing
+        long[] a = this.array;
+        for (int i = 0; i < this.size; i++) {
+            action.accept(a[i]);
+        }
+    }
+
+    public long[] toArray() {
+        // Returns a copy of the elements
+        return Arrays.copyOf(this.array, this.size);
+    }
+
+    public String toString() {
+        // Returns a String representation of the elements inside the list.
+        if (this.isEmpty()) {
+            return "Empty";
+        }
+
+        StringBuilder ret = new StringBuilder("");
+        for (int i = 0; i < this.size; i++) {
+            ret.append("Index: " + i + "    Element: " + this.array[i] + "\n");
+        }
+
+        ret.deleteCharAt(ret.length() - 1);
+
+        return ret.toString();
+    }
+
+    private void grow(int minCapacity) {
+        // Doubles the array, or more if minCapacity needs it
+        int capacity = Math.max(Math.max(this.array.length * 2, DEFAULT_CAPACITY), minCapacity);
+        this.array = Arrays.copyOf(this.array, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new ArrayIndexOutOfBoundsException("index >= size: " + index + " >= " + this.size);
+        }
+    }
+
+
+    /** Returns an instance of the Iterator class below. */
+    public PrimitiveIterator.OfLong iterator() {
+        return new LongArrayListIterator();
+    }
+
+    /** Allows the list to be iterated without boxing
+     * through nextLong. The list is not Iterable, as for each
+     * loops would box every element.
+     */
+    private class LongArrayListIterator implements PrimitiveIterator.OfLong {
+
+        private int current = 0; /** Starts from the first element */
+        private int last = -1;   /** Index of the element last returned */
+
+        public boolean hasNext() {
+            return current < size;
+        }
+
+        public long nextLong() {
+            if (!hasNext()) throw new NoSuchElementException();
+            last = current++;
+            return array[last];
+        }
+
+        /**
+         * Removes the element last returned.
+         */
+        public void remove() {
+            if (last < 0) throw new IllegalStateException();
+            System.arraycopy(array, last + 1, array, last, size - last - 1);
+            size--;
+            current = last;
+            last = -1;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+
+
+/**
+ * Implements a long to long HashMap with linear probing.
+ * Keys and values are kept in two flat primitive arrays so
+ * no entry objects are allocated and nothing is boxed. The
+ * key 0 marks an empty slot, the map itself can still hold
+ * 0 as a key by keeping it aside from the table.
+ *
+ * Follows the put/get/remove/containsKey/size contract of
+ * MyHashMap, with `noEntryValue` standing in for null.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class LongLongMap {
+
+    private static final long FREE_KEY = 0;    /** Sentinel marking an empty slot. */
+
+    private long[] keys;                       /** The keys of the table. */
+    private long[] values;                     /** The values, parallel to keys. */
+    private int mask;                          /** Table length - 1, table length is a power of two. */
+    private int size;                          /** Number of mappings including the free key. */
+    private boolean hasFreeKey;                /** Whether the key 0 is in the map. */
+    private long freeValue;                    /** The value mapped to the key 0. */
+    private final long noEntryValue;           /** Returned in place of null. */
+    private int STARTING_SIZE = 16;            /** Default starting size. */
+    private double MAX_LOAD_FACTOR = 0.67;     /** Consant starting load factor. */
+
+    /** Constructor initalizes the table with default starting
+     * size and uses 0 as the value for missing keys.
+     */
+    public LongLongMap() {
+        this(0);
+    }
+
+    /**
+     * Construct a map returning the given value for missing keys.
+     * @param noEntryValue is returned by get/put/remove when the key
+     * was not in the map.
+     */
+    public LongLongMap(long noEntryValue) {
+        this.keys = new long[STARTING_SIZE];
+        this.values = new long[STARTING_SIZE];
+        this.mask = STARTING_SIZE - 1;
+        this.size = 0;
+        this.noEntryValue = noEntryValue;
+    }
+
+
+    /**
+     * Adds the given key-value pair to the map.
+     * If the key is already in the map, the value is overwritten.
+     *
+     * @param key is the key to inserted.
+     * @param value is the value to be inserted.
+     * @return noEntryValue if the key was not already in the map. If it
+     * was in the map, return the old value associated with it.
+     */
+    public long put(long key, long value) {
+        if (key == FREE_KEY) {
+            long result = hasFreeKey ? freeValue : noEntryValue;
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeValue = value;
+            return result;
+        }
+
+        int index = getIndex(key);
+        if (keys[index] == key) {
+            long result = values[index];
+            values[index] = value;
+            return result;
+        }
+
+        /** New key: resize first if the table would
+         * become too full, then find the slot again.
+         */
+        if (getNextLoadFactor() > MAX_LOAD_FACTOR) {
+            resize();
+            index = getIndex(key);
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        return noEntryValue;
+    }
+
+
+    /**
+     * Removes the value associated with the key from the map.
+     *
+     * @param key is the key to remove.
+     * @return noEntryValue if the key was not already in the map. If it
+     * was in the map, return the old value associated with it.
+     */
+    public long remove(long key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return noEntryValue;
+            }
+            hasFreeKey = false;
+            size--;
+            return freeValue;
+        }
+
+        int index = getIndex(key);
+        if (keys[index] != key) {
+            return noEntryValue;
+        }
+
+        long result = values[index];
+        shiftBack(index);
+        size--;
+        return result;
+    }
+
+
+    /**
+     * Gets the value associated with the given key.
+     *
+     * @param key is the key to be looked up.
+     * @return the value associated with the given key,
+     * noEntryValue if there is none.
+     */
+    public long get(long key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeValue : noEntryValue;
+        }
+
+        int index = getIndex(key);
+        return keys[index] == key ? values[index] : noEntryValue;
+    }
+
+
+    /**
+     * Returns whether or not the key is in the map.
+     *
+     * @param key is the key to be looked up.
+     * @return true if the key is in the map, false otherwise.
+     */
+    public boolean containsKey(long key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        return keys[getIndex(key)] == key;
+    }
+
+    /**
+     * @return number of elements in the map.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the keys within the map as a new array.
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int j = 0;
+        if (hasFreeKey) {
+            result[j++] = FREE_KEY;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                result[j++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the values within the map as a new array, in the
+     * same order as keys().
+     */
+    public long[] values() {
+        long[] result = new long[size];
+        int j = 0;
+        if (hasFreeKey) {
+            result[j++] = freeValue;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                result[j++] = values[i];
+            }
+        }
+        return result;
+    }
+
+    /** PRIVATE HELPERS */
+
+    /**
+     * @param key the key to hash.
+     * @return the home slot of the key.
+     */
+    private int slot(long key) {
+        return Hashing.mix(key) & mask;
+    }
+
+    /**
+     * Probes from the home slot of the key until either the
+     * key or an empty slot is found.
+     *
+     * @param key the key to look up, never the free key.
+     * @return the index holding the key, or the empty slot it
+     * should be added to.
+     */
+    private int getIndex(long key) {
+        int index = slot(key);
+        while (keys[index] != FREE_KEY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Empties the slot at gap and moves later entries of the
+     * same run back into it, so no tombstones are left behind.
+     *
+     * @param gap the index of the slot being emptied.
+     */
+    private void shiftBack(int gap) {
+        int index = (gap + 1) & mask;
+        while (keys[index] != FREE_KEY) {
+            /** An entry may fill the gap if its home slot
+             * is not between the gap and where it sits now.
+             */
+            int distance = (index - slot(keys[index])) & mask;
+            if (distance >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[gap] = FREE_KEY;
+        values[gap] = 0;
+    }
+
+    /**
+     * Calculates the load factor if another element is added the map.
+     *
+     * @return Returns the load factor.
+     */
+    private double getNextLoadFactor() {
+        return (double) (size + 1) / (double) this.keys.length;
+    }
+
+    /**
+     * Doubles the size of the table and rehashes the current
+     * entries into it.
+     *
+     * @throws OutOfMemoryError if the table cannot grow any more.
+     */
+    private void resize() {
+        long[] oldKeys = this.keys;
+        long[] oldValues = this.values;
+        int length = Hashing.grow(oldKeys.length);
+        this.keys = new long[length];
+        this.values = new long[length];
+        this.mask = this.keys.length - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                int index = getIndex(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    public String toString() {
+        StringBuilder ret = new StringBuilder("{");
+        long[] k = keys();
+        long[] v = values();
+        for (int i = 0; i < k.length; i++) {
+            ret.append(i == 0 ? "" : ", ").append(k[i]).append(": ").append(v[i]);
+        }
+        return ret.append("}").toString();
+    }
+}
@@ -0,0 +1,293 @@
+
+
+/**
+ * Implements a long to object HashMap with linear probing.
+ * Keys are kept in a flat primitive array next to a flat
+ * array of values, so no entry objects are allocated and
+ * keys are never boxed. The key 0 marks an empty slot, the
+ * map itself can still hold 0 as a key by keeping it aside
+ * from the table.
+ *
+ * Follows the put/get/remove/containsKey/size contract of
+ * MyHashMap, including the rejection of null values.
+ *
+ * @param <V> type of values.
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class LongObjectMap<V> {
+
+    private static final long FREE_KEY = 0;    /** Sentinel marking an empty slot. */
+
+    private long[] keys;                       /** The keys of the table. */
+    private Object[] values;                   /** The values, parallel to keys. */
+    private int mask;                          /** Table length - 1, table length is a power of two. */
+    private int size;                          /** Number of mappings including the free key. */
+    private boolean hasFreeKey;                /** Whether the key 0 is in the map. */
+    private V freeValue;                       /** The value mapped to the key 0. */
+    private int STARTING_SIZE = 16;            /** Default starting size. */
+    private double MAX_LOAD_FACTOR = 0.67;     /** Consant starting load factor. */
+
+    /** Constructor initalizes the table with default starting
+     * size and sets current size to 0.
+     */
+    public LongObjectMap() {
+        this.keys = new long[STARTING_SIZE];
+        this.values = new Object[STARTING_SIZE];
+        this.mask = STARTING_SIZE - 1;
+        this.size = 0;
+    }
+
+
+    /**
+     * Adds the given key-value pair to the map.
+     * If the key is already in the map, the value is overwritten.
+     *
+     * @param key is the key to inserted.
+     * @param value is the value to be inserted.
+     * @throws IllegalArgumentException if value is null.
+     * @return null if the key was not already in the map. If it
+     * was in the map, return the old value associated with it.
+     */
+    public V put(long key, V value) {
+
+        /** Avoid inserting null values into the map. */
+        if (value == null) {
+            throw new IllegalArgumentException("Argument cannot be null.");
+        }
+
+        if (key == FREE_KEY) {
+            V result = freeValue;
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeValue = value;
+            return result;
+        }
+
+        int index = getIndex(key);
+        if (keys[index] == key) {
+            V result = valueAt(index);
+            values[index] = value;
+            return result;
+        }
+
+        /** New key: resize first if the table would
+         * become too full, then find the slot again.
+         */
+        if (getNextLoadFactor() > MAX_LOAD_FACTOR) {
+            resize();
+            index = getIndex(key);
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        return null;
+    }
+
+
+    /**
+     * Removes the value associated with the key from the map.
+     *
+     * @param key is the key to remove.
+     * @return null if the key was not already in the map. If it
+     * was in the map, return the old value associated with it.
+     */
+    public V remove(long key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return null;
+            }
+            V result = freeValue;
+            hasFreeKey = false;
+            freeValue = null;
+            size--;
+            return result;
+        }
+
+        int index = getIndex(key);
+        if (keys[index] != key) {
+            return null;
+        }
+
+        V result = valueAt(index);
+        shiftBack(index);
+        size--;
+        return result;
+    }
+
+
+    /**
+     * Gets the value associated with the given key.
+     *
+     * @param key is the key to be looked up.
+     * @return the value associated with the given key,
+     * null if there is none.
+     */
+    public V get(long key) {
+        if (key == FREE_KEY) {
+            return freeValue;
+        }
+
+        int index = getIndex(key);
+        return keys[index] == key ? valueAt(index) : null;
+    }
+
+
+    /**
+     * Returns whether or not the key is in the map.
+     *
+     * @param key is the key to be looked up.
+     * @return true if the key is in the map, false otherwise.
+     */
+    public boolean containsKey(long key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        return keys[getIndex(key)] == key;
+    }
+
+    /**
+     * @return number of elements in the map.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the keys within the map as a new array.
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int j = 0;
+        if (hasFreeKey) {
+            result[j++] = FREE_KEY;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                result[j++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return an Arraylist of all the values within the map, in
+     * the same order as keys().
+     */
+    public MyArrayList<V> values() {
+        MyArrayList<V> result = new MyArrayList<>(this.size);
+        if (hasFreeKey) {
+            result.add(freeValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                result.add(valueAt(i));
+            }
+        }
+        return result;
+    }
+
+    /** PRIVATE HELPERS */
+
+    /**
+     * @param index a slot of the table.
+     * @return the value stored at the slot.
+     */
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    /**
+     * @param key the key to hash.
+     * @return the home slot of the key.
+     */
+    private int slot(long key) {
+        return Hashing.mix(key) & mask;
+    }
+
+    /**
+     * Probes from the home slot of the key until either the
+     * key or an empty slot is found.
+     *
+     * @param key the key to look up, never the free key.
+     * @return the index holding the key, or the empty slot it
+     * should be added to.
+     */
+    private int getIndex(long key) {
+        int index = slot(key);
+        while (keys[index] != FREE_KEY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Empties the slot at gap and moves later entries of the
+     * same run back into it, so no tombstones are left behind.
+     *
+     * @param gap the index of the slot being emptied.
+     */
+    private void shiftBack(int gap) {
+        int index = (gap + 1) & mask;
+        while (keys[index] != FREE_KEY) {
+            /** An entry may fill the gap if its home slot
+             * is not between the gap and where it sits now.
+             */
+            int distance = (index - slot(keys[index])) & mask;
+            if (distance >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[gap] = FREE_KEY;
+        values[gap] = null;
+    }
+
+    /**
+     * Calculates the load factor if another element is added the map.
+     *
+     * @return Returns the load factor.
+     */
+    private double getNextLoadFactor() {
+        return (double) (size + 1) / (double) this.keys.length;
+    }
+
+    /**
+     * Doubles the size of the table and rehashes the current
+     * entries into it.
+     *
+     * @throws OutOfMemoryError if the table cannot grow any more.
+     */
+    private void resize() {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        int length = Hashing.grow(oldKeys.length);
+        this.keys = new long[length];
+        this.values = new Object[length];
+        this.mask = this.keys.length - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                int index = getIndex(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    public String toString() {
+        StringBuilder ret = new StringBuilder("{");
+        long[] k = keys();
+        MyArrayList<V> v = values();
+        for (int i = 0; i < k.length; i++) {
+            ret.append(i == 0 ? "" : ", ").append(k[i]).append(": ").append(v.get(i));
+        }
+        return ret.append("}").toString();
+    }
+}
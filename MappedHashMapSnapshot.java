@@ -0,0 +1,273 @@
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only view of a MyHashMap snapshot file, served straight
+ * from the memory-mapped file. Opening only maps the file, the
+ * pages a lookup touches are read in by the OS on first use.
+ *
+ * Snapshots are written by MyHashMap.writeSnapshot. The file is
+ * little-endian and laid out as
+ *
+ *   header, 16 bytes:
+ *     int magic     0x4D484D53 ("MHMS")
+ *     int version   1
+ *     int size      number of entries
+ *     int capacity  number of slots, a power of two
+ *   slots, capacity * 8 bytes:
+ *     int hash      hash of the key bytes, 0 for an empty slot
+ *     int offset    file offset of the record
+ *   records, one per entry:
+ *     int keyLength, key bytes, int valueLength, value bytes
+ *
+ * A key is placed by linear probing from (hash & (capacity - 1)),
+ * with hash computed over the encoded key by hash(byte[]) below,
+ * so lookups never depend on hashCode() of the running JVM.
+ *
+ * @param <K> type of keys.
+ * @param <V> type of values.
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class MappedHashMapSnapshot<K, V> implements AutoCloseable {
+
+    static final int MAGIC = 0x4D484D53;       /** First int of every snapshot file. */
+    static final int VERSION = 1;              /** Version of the layout above. */
+    static final int HEADER_SIZE = 16;         /** Bytes before the first slot. */
+    static final int SLOT_SIZE = 8;            /** Bytes in a slot. */
+
+    private ByteBuffer buffer;                 /** The mapped file, null once closed. */
+    private final Codec<K> keyCodec;           /** Turns keys to and from bytes. */
+    private final Codec<V> valueCodec;         /** Turns values to and from bytes. */
+    private final int size;                    /** Number of entries in the snapshot. */
+    private final int mask;                    /** Number of slots - 1. */
+
+    private MappedHashMapSnapshot(ByteBuffer buffer, Codec<K> keyCodec, Codec<V> valueCodec) {
+        this.buffer = buffer;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.size = buffer.getInt(8);
+        this.mask = buffer.getInt(12) - 1;
+    }
+
+    /**
+     * Maps a snapshot file written by MyHashMap.writeSnapshot.
+     *
+     * @param path is the snapshot file.
+     * @param keyCodec decodes the keys, as used when writing.
+     * @param valueCodec decodes the values, as used when writing.
+     * @throws IOException if the file cannot be mapped or is not
+     * a snapshot of a supported version.
+     * @return the snapshot.
+     */
+    public static <K, V> MappedHashMapSnapshot<K, V> open(Path path, Codec<K> keyCodec,
+            Codec<V> valueCodec) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large to map: " + channel.size() + " bytes.");
+            }
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a snapshot file: " + path);
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException("Not a snapshot file: " + path);
+            }
+            if (mapped.getInt(4) != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + mapped.getInt(4));
+            }
+            return new MappedHashMapSnapshot<>(mapped, keyCodec, valueCodec);
+        }
+    }
+
+
+    /**
+     * Gets the value associated with the given key.
+     *
+     * @param key is the key to be looked up.
+     * @throws IllegalArgumentException if key is null.
+     * @return the value associated with the given key.
+     */
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Argument cannot be null.");
+        }
+
+        int offset = find(keyCodec.encode(key));
+        if (offset < 0) {
+            return null;
+        }
+
+        int keyLength = buffer.getInt(offset);
+        int valueOffset = offset + 4 + keyLength;
+        byte[] value = new byte[buffer.getInt(valueOffset)];
+        buffer.get(valueOffset + 4, value);
+        return valueCodec.decode(value);
+    }
+
+
+    /**
+     * Returns whether or not the key is in the snapshot.
+     *
+     * @param key is the key to be looked up.
+     * @throws IllegalArgumentException if key is null
+     * @return true if the key is in the snapshot, false otherwise.
+     */
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Argument cannot be null.");
+        }
+        return find(keyCodec.encode(key)) >= 0;
+    }
+
+    /**
+     * @return number of elements in the snapshot.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Unmaps the file. No other thread may be using the snapshot
+     * when it is closed, calling close() again does nothing.
+     */
+    @Override
+    public void close() {
+        if (buffer != null) {
+            Buffers.free(buffer);
+            buffer = null;
+        }
+    }
+
+    /** PRIVATE HELPERS */
+
+    /**
+     * Probes the slots for the encoded key.
+     *
+     * @param key the encoded key.
+     * @return the file offset of its record, or -1 if not found.
+     */
+    private int find(byte[] key) {
+        if (buffer == null) {
+            throw new IllegalStateException("Snapshot is closed.");
+        }
+
+        int hash = hash(key);
+        int index = hash & mask;
+        int slotHash;
+        while ((slotHash = buffer.getInt(HEADER_SIZE + index * SLOT_SIZE)) != 0) {
+            if (slotHash == hash) {
+                int offset = buffer.getInt(HEADER_SIZE + index * SLOT_SIZE + 4);
+                if (keyEquals(offset, key)) {
+                    return offset;
+                }
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /** Compares the key of the record at offset with the given bytes. */
+    private boolean keyEquals(int offset, byte[] key) {
+        if (buffer.getInt(offset) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + 4 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash of an encoded key as stored in the slots, never 0.
+     *
+     * @param key the encoded key.
+     * @return the hash.
+     */
+    static int hash(byte[] key) {
+        int h = 1;
+        for (byte b : key) {
+            h = 31 * h + b;
+        }
+        h *= 0x9E3779B9;
+        h ^= h >>> 16;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * Writes the given encoded entries to a snapshot file, replacing
+     * the file if it exists. The file is replaced in one atomic
+     * move, so snapshots already open keep reading the old one.
+     *
+     * @param path is the file to write.
+     * @param keys the encoded keys, without duplicates.
+     * @param values the encoded values, parallel to keys.
+     * @param count the number of entries in keys and values.
+     * @throws IOException if the file cannot be written or would be
+     * too large to map.
+     */
+    static void write(Path path, byte[][] keys, byte[][] values, int count) throws IOException {
+        int capacity = 2;
+        while (capacity < count * 2) {
+            capacity *= 2;
+        }
+
+        long length = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        for (int i = 0; i < count; i++) {
+            length += 8L + keys[i].length + values[i].length;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot would be too large to map: " + length + " bytes.");
+        }
+
+        /** Lay out the header and slots first, then stream
+         * the records after them.
+         */
+        ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE + capacity * SLOT_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        head.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, count).putInt(12, capacity);
+
+        int mask = capacity - 1;
+        int offset = head.capacity();
+        for (int i = 0; i < count; i++) {
+            int hash = hash(keys[i]);
+            int index = hash & mask;
+            while (head.getInt(HEADER_SIZE + index * SLOT_SIZE) != 0) {
+                index = (index + 1) & mask;
+            }
+            head.putInt(HEADER_SIZE + index * SLOT_SIZE, hash);
+            head.putInt(HEADER_SIZE + index * SLOT_SIZE + 4, offset);
+            offset += 8 + keys[i].length + values[i].length;
+        }
+
+        Buffers.writeAtomically(path, channel -> {
+            Buffers.writeFully(channel, head);
+
+            ByteBuffer record = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < count; i++) {
+                int recordLength = 8 + keys[i].length + values[i].length;
+                if (record.remaining() < recordLength) {
+                    record.flip();
+                    Buffers.writeFully(channel, record);
+                    record.clear();
+                    if (record.capacity() < recordLength) {
+                        record = ByteBuffer.allocate(recordLength).order(ByteOrder.LITTLE_ENDIAN);
+                    }
+                }
+                record.putInt(keys[i].length).put(keys[i]).putInt(values[i].length).put(values[i]);
+            }
+            record.flip();
+            Buffers.writeFully(channel, record);
+        });
+    }
+}
@@ -0,0 +1,367 @@
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An append-mostly list of fixed-width records kept in a
+ * memory-mapped file, so it survives restarts and reopens without
+ * reading anything back.
+ *
+ * Records are read and written straight in the mapped file, either
+ * whole as byte[] or field by field through getLong/getInt at an
+ * offset within the record, so no object is made per record and the
+ * heap only holds one buffer per region whatever the size of the
+ * list. The file is little-endian and laid out as
+ *
+ *   header, 24 bytes:
+ *     int magic        0x4D524C53 ("MRLS")
+ *     int version      1
+ *     int recordWidth  bytes in a record
+ *     int reserved     0
+ *     long size        number of records
+ *   regions, one after the other:
+ *     recordsPerRegion records of recordWidth bytes
+ *
+ * The file grows a region at a time: the next region is mapped,
+ * which extends the file, and the regions already mapped are left
+ * as they are, so records are never copied and no region holds
+ * more than about REGION_BYTES. No record crosses a region.
+ *
+ * The size in the header is updated after every add, so a reopened
+ * list holds every record added before it was closed. flush()
+ * forces the mapped pages to the disk.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class MappedRecordList implements AutoCloseable {
+
+    static final int MAGIC = 0x4D524C53;       /** First int of every record file. */
+    static final int VERSION = 1;              /** Version of the layout above. */
+    static final int HEADER_SIZE = 24;         /** Bytes before the first region. */
+    static final int REGION_BYTES = 1 << 26;   /** Most bytes mapped by a region. */
+
+    private final Path path;                   /** The file, opened again to map a region. */
+    private final int recordWidth;             /** Number of bytes in a record. */
+    private final int recordsPerRegion;        /** Number of records in a region. */
+    private MappedByteBuffer header;           /** The mapped header, null once closed. */
+    private MappedByteBuffer[] regions;        /** The regions mapped so far, unused ones null. */
+    private int regionCount;                   /** Number of regions mapped. */
+    private long size;                         /** Number of records in the list. */
+
+    private MappedRecordList(Path path, int recordWidth, MappedByteBuffer header) {
+        this.path = path;
+        this.recordWidth = recordWidth;
+        this.recordsPerRegion = Math.max(1, REGION_BYTES / recordWidth);
+        this.header = header;
+        this.regions = new MappedByteBuffer[8];
+        this.size = header.getLong(16);
+    }
+
+    /**
+     * Opens the record file at path, creating it if it does not
+     * exist. Only the header and the regions holding records are
+     * mapped, nothing is read.
+     *
+     * @param path is the record file.
+     * @param recordWidth is the number of bytes in every record.
+     * @throws IllegalArgumentException if recordWidth is not positive.
+     * @throws IOException if the file cannot be mapped, is not a
+     * record file of a supported version, or has records of
+     * another width.
+     * @return the list.
+     */
+    public static MappedRecordList open(Path path, int recordWidth) throws IOException {
+        if (recordWidth <= 0) {
+            throw new IllegalArgumentException("Record width must be positive.");
+        }
+
+        MappedByteBuffer header;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean created = channel.size() == 0;
+            if (!created && channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a record file: " + path);
+            }
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (created) {
+                header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, recordWidth).putInt(12, 0)
+                        .putLong(16, 0L);
+            }
+        }
+
+        String problem = null;
+        if (header.getInt(0) != MAGIC) {
+            problem = "Not a record file: " + path;
+        } else if (header.getInt(4) != VERSION) {
+            problem = "Unsupported record file version: " + header.getInt(4);
+        } else if (header.getInt(8) != recordWidth) {
+            problem = "Records are " + header.getInt(8) + " bytes, not " + recordWidth;
+        }
+        if (problem != null) {
+            Buffers.free(header);
+            throw new IOException(problem);
+        }
+
+        MappedRecordList list = new MappedRecordList(path, recordWidth, header);
+        list.mapRegions(list.regionOf(list.size + list.recordsPerRegion - 1));
+        return list;
+    }
+
+
+    /**
+     * Appends a record to the list, mapping a new region when
+     * the last one is full.
+     *
+     * @param record is the record to be added.
+     * @throws IllegalArgumentException if record is not recordWidth bytes.
+     * @throws IOException if a new region cannot be mapped.
+     * @return the index of the record.
+     */
+    public long add(byte[] record) throws IOException {
+        checkRecord(record);
+        long index = reserve();
+        region(index).put(offset(index), record);
+        return publish(index);
+    }
+
+    /**
+     * Appends a long to a list of 8-byte records.
+     *
+     * @param value is the value to be added.
+     * @throws IOException if a new region cannot be mapped.
+     * @return the index of the record.
+     */
+    public long add(long value) throws IOException {
+        checkLongs();
+        long index = reserve();
+        region(index).putLong(offset(index), value);
+        return publish(index);
+    }
+
+    /**
+     * Copies a record into dest.
+     *
+     * @param index is the index of the record.
+     * @param dest receives the record, recordWidth bytes long.
+     */
+    public void get(long index, byte[] dest) {
+        checkIndex(index);
+        checkRecord(dest);
+        region(index).get(offset(index), dest);
+    }
+
+    /**
+     * Returns a copy of a record.
+     *
+     * @param index is the index of the record.
+     * @return the record.
+     */
+    public byte[] get(long index) {
+        byte[] result = new byte[recordWidth];
+        get(index, result);
+        return result;
+    }
+
+    /**
+     * Reads a field of a record without copying the record.
+     *
+     * @param index is the index of the record.
+     * @param fieldOffset is the offset of the field in the record.
+     * @return the long at fieldOffset in the record.
+     */
+    public long getLong(long index, int fieldOffset) {
+        checkIndex(index);
+        checkField(fieldOffset, 8);
+        return region(index).getLong(offset(index) + fieldOffset);
+    }
+
+    /**
+     * @param index is the index of the record.
+     * @return the long held by an 8-byte record.
+     */
+    public long getLong(long index) {
+        checkLongs();
+        return getLong(index, 0);
+    }
+
+    /**
+     * Reads a field of a record without copying the record.
+     *
+     * @param index is the index of the record.
+     * @param fieldOffset is the offset of the field in the record.
+     * @return the int at fieldOffset in the record.
+     */
+    public int getInt(long index, int fieldOffset) {
+        checkIndex(index);
+        checkField(fieldOffset, 4);
+        return region(index).getInt(offset(index) + fieldOffset);
+    }
+
+    /**
+     * Overwrites a record.
+     *
+     * @param index is the index of the record.
+     * @param record is the new record.
+     */
+    public void set(long index, byte[] record) {
+        checkIndex(index);
+        checkRecord(record);
+        region(index).put(offset(index), record);
+    }
+
+    /**
+     * Overwrites an 8-byte record.
+     *
+     * @param index is the index of the record.
+     * @param value is the new value.
+     */
+    public void set(long index, long value) {
+        checkIndex(index);
+        checkLongs();
+        region(index).putLong(offset(index), value);
+    }
+
+    /**
+     * @return number of records in the list.
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * @return true if there are no records, false otherwise.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Empties the list. The file keeps its length and the regions
+     * stay mapped, to be written over by the next records.
+     */
+    public void clear() {
+        checkOpen();
+        this.size = 0;
+        header.putLong(16, 0L);
+    }
+
+    /**
+     * Forces the changes made so far to the disk.
+     */
+    public void flush() {
+        checkOpen();
+        for (int r = 0; r < regionCount; r++) {
+            regions[r].force();
+        }
+        header.force();
+    }
+
+    /**
+     * Unmaps the file. No other thread may be using the list when
+     * it is closed, calling close() again does nothing.
+     */
+    @Override
+    public void close() {
+        if (header != null) {
+            for (int r = 0; r < regionCount; r++) {
+                Buffers.free(regions[r]);
+                regions[r] = null;
+            }
+            Buffers.free(header);
+            header = null;
+            regionCount = 0;
+        }
+    }
+
+    /** PRIVATE HELPERS */
+
+    /** @return the index of the next record, mapping its region. */
+    private long reserve() throws IOException {
+        checkOpen();
+        long index = this.size;
+        if (regionOf(index) >= regionCount) {
+            mapRegions(regionOf(index) + 1);
+        }
+        return index;
+    }
+
+    /** Counts the record in the size, in memory and in the file. */
+    private long publish(long index) {
+        this.size = index + 1;
+        header.putLong(16, this.size);
+        return index;
+    }
+
+    /** Maps regions until count of them are mapped. */
+    private void mapRegions(int count) throws IOException {
+        if (count <= regionCount) {
+            return;
+        }
+        if (count > regions.length) {
+            regions = Arrays.copyOf(regions, Math.max(count, regions.length * 2));
+        }
+
+        long regionBytes = (long) recordsPerRegion * recordWidth;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            for (int r = regionCount; r < count; r++) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER_SIZE + r * regionBytes, regionBytes);
+                region.order(ByteOrder.LITTLE_ENDIAN);
+                regions[r] = region;
+                regionCount = r + 1;
+            }
+        }
+    }
+
+    private int regionOf(long index) {
+        return (int) (index / recordsPerRegion);
+    }
+
+    private MappedByteBuffer region(long index) {
+        return regions[regionOf(index)];
+    }
+
+    private int offset(long index) {
+        return (int) (index % recordsPerRegion) * recordWidth;
+    }
+
+    private void checkOpen() {
+        if (header == null) {
+            throw new IllegalStateException("List is closed.");
+        }
+    }
+
+    private void checkIndex(long index) {
+        checkOpen();
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("index >= size: " + index + " >= " + this.size);
+        }
+    }
+
+    private void checkRecord(byte[] record) {
+        if (record == null || record.length != recordWidth) {
+            throw new IllegalArgumentException("Record must be " + recordWidth + " bytes.");
+        }
+    }
+
+    private void checkField(int fieldOffset, int width) {
+        if (fieldOffset < 0 || fieldOffset + width > recordWidth) {
+            throw new IndexOutOfBoundsException("Field at " + fieldOffset + " does not fit a record of "
+                    + recordWidth + " bytes.");
+        }
+    }
+
+    private void checkLongs() {
+        if (recordWidth != 8) {
+            throw new IllegalStateException("List is not of 8-byte records.");
+        }
+    }
+}
@@ -0,0 +1,367 @@
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only sorted file of keys, written by BST.writeSortedFile
+ * and served straight from the memory-mapped file, so a large tree
+ * can be moved off the heap and looked up again without inserting
+ * every key back into a BST.
+ *
+ * The keys are stored in order in blocks of about BLOCK_SIZE bytes,
+ * followed by a sparse index holding where each block starts. A
+ * lookup binary searches the blocks by their first key, then scans
+ * the one block that can hold the key, so it touches O(log blocks)
+ * pages plus one block. The file is little-endian and laid out as
+ *
+ *   header, 24 bytes:
+ *     int magic        0x53535442 ("SSTB")
+ *     int version      1
+ *     int size         number of keys
+ *     int blockCount   number of blocks
+ *     int indexOffset  file offset of the index
+ *     int reserved     0
+ *   blocks, one after the other:
+ *     records, one per key: int keyLength, key bytes
+ *   index, blockCount * 8 bytes:
+ *     int offset       file offset of the block
+ *     int count        number of keys in the block
+ *
+ * Keys are compared decoded, with the comparator of the tree the
+ * file was written from, which the reader must be given again.
+ *
+ * @param <T> type of the keys.
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class MappedSortedFile<T> implements AutoCloseable, Iterable<T> {
+
+    static final int MAGIC = 0x53535442;       /** First int of every sorted file. */
+    static final int VERSION = 1;              /** Version of the layout above. */
+    static final int HEADER_SIZE = 24;         /** Bytes before the first block. */
+    static final int INDEX_ENTRY_SIZE = 8;     /** Bytes in an index entry. */
+    static final int BLOCK_SIZE = 4096;        /** Bytes after which a new block is started. */
+
+    private ByteBuffer buffer;                 /** The mapped file, null once closed. */
+    private final Codec<T> codec;              /** Turns keys to and from bytes. */
+    private final Comparator<T> comparator;    /** The order the keys were written in. */
+    private final int size;                    /** Number of keys in the file. */
+    private final int blockCount;              /** Number of blocks in the file. */
+    private final int indexOffset;             /** File offset of the index. */
+
+    private MappedSortedFile(ByteBuffer buffer, Codec<T> codec,
+            Comparator<T> comparator) {
+        this.buffer = buffer;
+        this.codec = codec;
+        this.comparator = comparator;
+        this.size = buffer.getInt(8);
+        this.blockCount = buffer.getInt(12);
+        this.indexOffset = buffer.getInt(16);
+    }
+
+    /**
+     * Maps a sorted file written by BST.writeSortedFile.
+     *
+     * @param path is the sorted file.
+     * @param codec decodes the keys, as used when writing.
+     * @param comparator the comparator of the tree written.
+     * @throws IOException if the file cannot be mapped or is not
+     * a sorted file of a supported version.
+     * @return the sorted file.
+     */
+    public static <T> MappedSortedFile<T> open(Path path, Codec<T> codec,
+            Comparator<T> comparator) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Sorted file is too large to map: " + channel.size() + " bytes.");
+            }
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a sorted file: " + path);
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException("Not a sorted file: " + path);
+            }
+            if (mapped.getInt(4) != VERSION) {
+                throw new IOException("Unsupported sorted file version: " + mapped.getInt(4));
+            }
+            return new MappedSortedFile<>(mapped, codec, comparator);
+        }
+    }
+
+    /**
+     * Maps a sorted file of keys in their natural order.
+     *
+     * @see #open(Path, Codec, Comparator)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> MappedSortedFile<T> open(Path path, Codec<T> codec)
+            throws IOException {
+        return open(path, codec, (Comparator<T>) Comparator.naturalOrder());
+    }
+
+
+    /**
+     * Returns true if the key is in the file and false otherwise.
+     *
+     * @param data the key that's being searched for.
+     * @return true if found, false otherwise.
+     */
+    public boolean contains(T data) {
+        return get(data) != null;
+    }
+
+    /**
+     * Given some key the file is searched for a key comparing
+     * equal to it.
+     *
+     * @param data is the key to get.
+     * @return the key decoded from the file, null if not found.
+     */
+    public T get(T data) {
+        Cursor cursor = new Cursor(data);
+        if (cursor.hasKey() && comparator.compare(cursor.key, data) == 0) {
+            return cursor.key;
+        }
+        return null;
+    }
+
+    /**
+     * @return number of keys in the file.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns an iterator over the keys between lo and hi, both
+     * included, in order. Each key is decoded as it is reached.
+     *
+     * @param lo is the lower bound, null for no lower bound.
+     * @param hi is the upper bound, null for no upper bound.
+     * @return the iterator.
+     */
+    public Iterator<T> range(T lo, T hi) {
+        Cursor cursor = new Cursor(lo);
+        return new Iterator<T>() {
+            public boolean hasNext() {
+                return cursor.hasKey() && (hi == null || comparator.compare(cursor.key, hi) <= 0);
+            }
+
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T key = cursor.key;
+                cursor.advance();
+                return key;
+            }
+        };
+    }
+
+    /**
+     * @return an iterator over all the keys in order.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return range(null, null);
+    }
+
+    /**
+     * Unmaps the file. No other thread may be using it when it is
+     * closed, calling close() again does nothing.
+     */
+    @Override
+    public void close() {
+        if (buffer != null) {
+            Buffers.free(buffer);
+            buffer = null;
+        }
+    }
+
+    /** PRIVATE HELPERS */
+
+    /**
+     * A position in the file, holding the decoded key found there.
+     */
+    private class Cursor {
+        private int block;        /** Block of the current key. */
+        private int remaining;    /** Keys left in the block after the current one. */
+        private int offset;       /** File offset of the next record. */
+        T key;                    /** The current key, null past the last one. */
+
+        /** Positions the cursor at the first key not below
+         * data, or at the first key if data is null. */
+        Cursor(T data) {
+            if (buffer == null) {
+                throw new IllegalStateException("Sorted file is closed.");
+            }
+            block = (data == null || blockCount == 0) ? 0 : findBlock(data);
+            enterBlock();
+            advance();
+            while (data != null && key != null && comparator.compare(key, data) < 0) {
+                advance();
+            }
+        }
+
+        boolean hasKey() {
+            return key != null;
+        }
+
+        /** Moves to the next key, going over to the next
+         * block at the end of this one. */
+        void advance() {
+            while (remaining == 0) {
+                if (++block >= blockCount) {
+                    key = null;
+                    return;
+                }
+                enterBlock();
+            }
+
+            byte[] bytes = new byte[buffer.getInt(offset)];
+            buffer.get(offset + 4, bytes);
+            offset += 4 + bytes.length;
+            remaining--;
+            key = codec.decode(bytes);
+        }
+
+        /** Moves to the start of the current block. */
+        private void enterBlock() {
+            if (block < blockCount) {
+                offset = buffer.getInt(indexOffset + block * INDEX_ENTRY_SIZE);
+                remaining = buffer.getInt(indexOffset + block * INDEX_ENTRY_SIZE + 4);
+            }
+        }
+    }
+
+    /**
+     * Binary searches the blocks by their first key.
+     *
+     * @param data the key looked for.
+     * @return the last block whose first key is at most data,
+     * 0 if there is none.
+     */
+    private int findBlock(T data) {
+        int lo = 0;
+        int hi = blockCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (comparator.compare(firstKey(mid), data) <= 0) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /** Decodes the first key of a block. */
+    private T firstKey(int block) {
+        int offset = buffer.getInt(indexOffset + block * INDEX_ENTRY_SIZE);
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + 4, bytes);
+        return codec.decode(bytes);
+    }
+
+    /**
+     * Writes the given keys to a sorted file, replacing the file
+     * if it exists. The keys are encoded and written as they come,
+     * so only one block is held in memory. The file is replaced in
+     * one atomic move, so files already open keep reading the old one.
+     *
+     * @param path is the file to write.
+     * @param keys the keys, in strictly increasing order.
+     * @param codec turns the keys into bytes.
+     * @throws IOException if the file cannot be written or would be
+     * too large to map.
+     */
+    static <T> void write(Path path, Iterator<T> keys, Codec<T> codec)
+            throws IOException {
+        Buffers.writeAtomically(path, channel -> writeBlocks(channel, keys, codec));
+    }
+
+    /**
+     * Writes the blocks, the index and then the header.
+     */
+    private static <T> void writeBlocks(FileChannel channel, Iterator<T> keys, Codec<T> codec)
+            throws IOException {
+        int[] index = new int[16];
+        int blockCount = 0;
+        int size = 0;
+        long offset = HEADER_SIZE;
+
+        ByteBuffer block = ByteBuffer.allocate(2 * BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int blockKeys = 0;
+
+        /** Leave room for the header, written last. */
+        channel.position(HEADER_SIZE);
+        while (keys.hasNext()) {
+            byte[] key = codec.encode(keys.next());
+            if (blockKeys > 0 && block.position() + 4 + key.length > BLOCK_SIZE) {
+                offset = flushBlock(channel, block, offset);
+                blockCount++;
+                blockKeys = 0;
+            }
+            if (blockKeys == 0) {
+                if (2 * blockCount + 2 > index.length) {
+                    index = Arrays.copyOf(index, index.length * 2);
+                }
+                index[2 * blockCount] = (int) offset;
+            }
+            if (block.remaining() < 4 + key.length) {
+                block = ByteBuffer.allocate(block.position() + 4 + key.length)
+                        .order(ByteOrder.LITTLE_ENDIAN).put(block.flip());
+            }
+            block.putInt(key.length).put(key);
+            index[2 * blockCount + 1] = ++blockKeys;
+            size++;
+        }
+        if (blockKeys > 0) {
+            offset = flushBlock(channel, block, offset);
+            blockCount++;
+        }
+
+        if (offset + (long) blockCount * INDEX_ENTRY_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("Sorted file would be too large to map.");
+        }
+        ByteBuffer tail = ByteBuffer.allocate(blockCount * INDEX_ENTRY_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        tail.asIntBuffer().put(index, 0, 2 * blockCount);
+        Buffers.writeFully(channel, tail);
+
+        ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        head.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(blockCount)
+                .putInt((int) offset).putInt(0).flip();
+        channel.position(0);
+        Buffers.writeFully(channel, head);
+    }
+
+    /**
+     * Writes out and empties the block buffer.
+     *
+     * @return the file offset after the block.
+     */
+    private static long flushBlock(FileChannel channel, ByteBuffer block, long offset)
+            throws IOException {
+        offset += block.position();
+        if (offset > Integer.MAX_VALUE) {
+            throw new IOException("Sorted file would be too large to map.");
+        }
+        block.flip();
+        Buffers.writeFully(channel, block);
+        block.clear();
+        return offset;
+    }
+}
@@ -1,154 +1,226 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
 
-
-public class MinHeap {
-    private int[] Heap;
+/**
+ * A generic d-ary min heap that grows as elements are added.
+ *
+ * Each node has arity children, a power of two, so a heap of n
+ * elements is log_arity(n) levels deep: with 4 or 8 children the
+ * children of a node share one or two cache lines and a removeMin
+ * touches far fewer lines than with 2. Sifting moves a hole instead
+ * of swapping, so each level costs one write.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class MinHeap<T> {
+    private Object[] Heap;
     private int size;
-    private int maxsize;
-  
-    private static final int FRONT = 1;
-  
-    public MinHeap(int maxsize)
+    private final int shift;                       // log2 of the arity
+    private final Comparator<? super T> comparator;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int DEFAULT_ARITY = 4;
+
+    @SuppressWarnings("unchecked")
+    public MinHeap()
+    {
+        this(DEFAULT_CAPACITY, DEFAULT_ARITY, (Comparator<? super T>) Comparator.naturalOrder());
+    }
+
+    @SuppressWarnings("unchecked")
+    public MinHeap(int capacity)
+    {
+        this(capacity, DEFAULT_ARITY, (Comparator<? super T>) Comparator.naturalOrder());
+    }
+
+    public MinHeap(Comparator<? super T> comparator)
     {
-        this.maxsize = maxsize;
+        this(DEFAULT_CAPACITY, DEFAULT_ARITY, comparator);
+    }
+
+    // capacity is only the initial capacity, the heap grows
+    // as needed. arity must be a power of two, 2 or more.
+    public MinHeap(int capacity, int arity, Comparator<? super T> comparator)
+    {
+        if (arity < 2 || Integer.bitCount(arity) != 1) {
+            throw new IllegalArgumentException("Arity must be a power of two, 2 or more: " + arity);
+        }
+        this.Heap = new Object[Math.max(capacity, 1)];
         this.size = 0;
-        Heap = new int[this.maxsize + 1];
-        Heap[0] = Integer.MIN_VALUE;
+        this.shift = Integer.numberOfTrailingZeros(arity);
+        this.comparator = comparator;
     }
-  
+
+    // Builds a heap out of the given elements in O(n),
+    // copying them and sifting down from the last parent
+    // rather than inserting them one by one
+    public MinHeap(T[] elements, int arity, Comparator<? super T> comparator)
+    {
+        this(elements.length, arity, comparator);
+        System.arraycopy(elements, 0, Heap, 0, elements.length);
+        size = elements.length;
+        minHeap();
+    }
+
+    @SuppressWarnings("unchecked")
+    public MinHeap(T[] elements)
+    {
+        this(elements, DEFAULT_ARITY, (Comparator<? super T>) Comparator.naturalOrder());
+    }
+
+    // Builds a heap of ints in O(n)
+    public static MinHeap<Integer> heapify(int[] elements)
+    {
+        MinHeap<Integer> heap = new MinHeap<>(elements.length);
+        for (int i = 0; i < elements.length; i++) {
+            heap.Heap[i] = elements[i];
+        }
+        heap.size = elements.length;
+        heap.minHeap();
+        return heap;
+    }
+
     // Function to return the position of
     // the parent for the node currently
     // at pos
     private int parent(int pos)
     {
-        return pos / 2;
+        return (pos - 1) >>> shift;
     }
-  
+
     // Function to return the position of the
-    // left child for the node currently at pos
-    private int leftChild(int pos)
+    // first child for the node currently at pos
+    private int firstChild(int pos)
     {
-        return (2 * pos);
+        return (pos << shift) + 1;
     }
-  
-    // Function to return the position of
-    // the right child for the node currently
-    // at pos
-    private int rightChild(int pos)
+
+    @SuppressWarnings("unchecked")
+    T elementAt(int pos)
     {
-        return (2 * pos) + 1;
+        return (T) Heap[pos];
     }
-  
-    // Function that returns true if the passed
-    // node is a leaf node
-    private boolean isLeaf(int pos)
+
+    // Function to move element up from the hole at pos,
+    // moving the parents it is smaller than down into
+    // the hole, and put it where the hole stops
+    private void siftUp(int pos, T element)
     {
-        if (pos >= (size / 2) && pos <= size) {
-            return true;
+        while (pos > 0) {
+            int parent = parent(pos);
+            T p = elementAt(parent);
+            if (comparator.compare(element, p) >= 0) {
+                break;
+            }
+            Heap[pos] = p;
+            pos = parent;
         }
-        return false;
-    }
-  
-    // Function to swap two nodes of the heap
-    private void swap(int fpos, int spos)
-    {
-        int tmp;
-        tmp = Heap[fpos];
-        Heap[fpos] = Heap[spos];
-        Heap[spos] = tmp;
-    }
-  
-    // Function to heapify the node at pos
-    private void minHeapify(int pos)
-    {
-  
-        // If the node is a non-leaf node and greater
-        // than any of its child
-        if (!isLeaf(pos)) {
-            if (Heap[pos] > Heap[leftChild(pos)]
-                || Heap[pos] > Heap[rightChild(pos)]) {
-  
-                // Swap with the left child and heapify
-                // the left child
-                if (Heap[leftChild(pos)] < Heap[rightChild(pos)]) {
-                    swap(pos, leftChild(pos));
-                    minHeapify(leftChild(pos));
-                }
-  
-                // Swap with the right child and heapify
-                // the right child
-                else {
-                    swap(pos, rightChild(pos));
-                    minHeapify(rightChild(pos));
+        Heap[pos] = element;
+    }
+
+    // Function to move element down from the hole at pos,
+    // moving the smallest child up into the hole while it
+    // is smaller than element, and put it where the hole
+    // stops
+    private void siftDown(int pos, T element)
+    {
+        int child;
+        while ((child = firstChild(pos)) < size) {
+            // Find the smallest of the children, the last
+            // node may have fewer than arity of them
+            int last = Math.min(child + (1 << shift), size);
+            T min = elementAt(child);
+            for (int c = child + 1; c < last; c++) {
+                T candidate = elementAt(c);
+                if (comparator.compare(candidate, min) < 0) {
+                    min = candidate;
+                    child = c;
                 }
             }
+
+            if (comparator.compare(min, element) >= 0) {
+                break;
+            }
+            Heap[pos] = min;
+            pos = child;
         }
+        Heap[pos] = element;
     }
-  
-    // Function to insert a node into the heap
-    public void insert(int element)
+
+    // Function to insert a node into the heap,
+    // growing the array when it is full
+    public void insert(T element)
     {
-        if (size >= maxsize) {
-            return;
-        }
-        Heap[++size] = element;
-        int current = size;
-  
-        while (Heap[current] < Heap[parent(current)]) {
-            swap(current, parent(current));
-            current = parent(current);
+        if (size == Heap.length) {
+            Heap = Arrays.copyOf(Heap, Heap.length + (Heap.length >> 1) + 1);
         }
+        siftUp(size++, element);
     }
-  
+
     // Function to print the contents of the heap
     public void print()
     {
-        for (int i = 1; i <= size / 2; i++) {
-            System.out.print(" PARENT : " + Heap[i]
-                             + " LEFT CHILD : " + Heap[2 * i]
-                             + " RIGHT CHILD :" + Heap[2 * i + 1]);
+        for (int i = 0; firstChild(i) < size; i++) {
+            System.out.print(" PARENT : " + Heap[i] + " CHILDREN :");
+            int last = Math.min(firstChild(i) + (1 << shift), size);
+            for (int c = firstChild(i); c < last; c++) {
+                System.out.print(" " + Heap[c]);
+            }
             System.out.println();
         }
     }
-  
-    // Function to build the min heap using
-    // the minHeapify
+
+    // Function to build the min heap bottom-up,
+    // sifting down every node that has children,
+    // starting from the parent of the last node
     public void minHeap()
     {
-        for (int pos = (size / 2); pos >= 1; pos--) {
-            minHeapify(pos);
+        for (int pos = (size - 2) >> shift; pos >= 0; pos--) {
+            siftDown(pos, elementAt(pos));
         }
     }
-  
+
+    // Function to return the minimum element
+    // without removing it
+    public T peek()
+    {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty.");
+        }
+        return elementAt(0);
+    }
+
     // Function to remove and return the minimum
     // element from the heap
-    public int removeMin()
+    public T removeMin()
     {
-        int popped = Heap[FRONT];
-        Heap[FRONT] = Heap[size--];
-        minHeapify(FRONT);
+        T popped = peek();
+        T last = elementAt(--size);
+        Heap[size] = null;
+        if (size > 0) {
+            siftDown(0, last);
+        }
         return popped;
     }
-  
-
-    public static void main(String[] args) {
 
-        System.out.println("The Min Heap is ");
-        MinHeap minHeap = new MinHeap(15);
-        minHeap.insert(5);
-        minHeap.insert(3);
-        minHeap.insert(7);
-        minHeap.insert(4);
-        minHeap.removeMin();
-        minHeap.insert(2);
-        // minHeap.insert(19);
-        // minHeap.insert(6);
-        // minHeap.insert(22);
-        // minHeap.insert(9);
-        minHeap.minHeap();
-  
-        minHeap.print();
-        //System.out.println("The Min val is " + minHeap.removeMin());
+    // Function to remove the minimum element and insert
+    // another in a single sift down, returning the minimum
+    public T replaceMin(T element)
+    {
+        T popped = peek();
+        siftDown(0, element);
+        return popped;
     }
 
+    public int size()
+    {
+        return size;
+    }
 
-}
\ No newline at end of file
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+}
@@ -1,48 +1,140 @@
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 public class MyArrayList<E> implements Iterable<E>{
 
+    private static final Object[] EMPTY = {};      /** Shared by lists that never had an element. */
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;   /** Largest array most VMs can allocate. */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;   /** Fewest elements a parallel task splits. */
+
     private Object[] array;
     private int size;
-    private int capacity;
+    private GrowthPolicy growthPolicy;
+
+    /** Decides how large the array becomes when it is full. */
+    public interface GrowthPolicy {
+        /**
+         * @param capacity the current capacity.
+         * @param minCapacity the capacity needed.
+         * @return the new capacity, at least minCapacity.
+         */
+        int grow(int capacity, int minCapacity);
+    }
+
+    /** Doubles the array, the default. */
+    public static final GrowthPolicy DOUBLING = (capacity, minCapacity) ->
+            grownCapacity(capacity, capacity, minCapacity);
+
+    /** Grows the array by half, using less memory for more copying. */
+    public static final GrowthPolicy BY_HALF = (capacity, minCapacity) ->
+            grownCapacity(capacity, capacity >> 1, minCapacity);
+
+    private static int grownCapacity(int capacity, int growth, int minCapacity) {
+        // Grows capacity by growth, to at least minCapacity. Near the
+        // top the growth is clamped to MAX_CAPACITY rather than left to
+        // overflow, like ArrayList, so the list does not fall back to
+        // growing, and copying the whole array, one slot at a time
+        long grown = Math.max((long) capacity + growth, DEFAULT_CAPACITY);
+        return (int) Math.max(Math.min(grown, MAX_CAPACITY), minCapacity);
+    }
 
     public MyArrayList() {
-        // Initialise variables
-        this.capacity = 1000;
-        this.array = new Object[capacity];
+        // The array is only allocated by the first add
+        this.array = EMPTY;
         this.size = 0;
+        this.growthPolicy = DOUBLING;
     }
 
-    public MyArrayList(int size) {
-        // Initialise variables
-        this.capacity = size;
-        this.array = new Object[size];
-        this.size = size;
+    public MyArrayList(int capacity) {
+        // Initialise an empty list with room for capacity elements
+        this(capacity, DOUBLING);
+    }
+
+    public MyArrayList(int capacity, GrowthPolicy growthPolicy) {
+        // Initialise an empty list with room for capacity elements,
+        // growing by the given policy once they are used up
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        }
+        this.array = (capacity == 0) ? EMPTY : new Object[capacity];
+        this.size = 0;
+        this.growthPolicy = growthPolicy;
     }
 
 
     public boolean add(E element) {
-        // Adds element to the array, returns true on success and false otherwise.
-        // Doubles the array size when reached capacity
-        try {
-            if (this.size >= this.capacity) {
-                this.capacity *= 2;
-                Object[] temp = new Object[capacity];
-                System.arraycopy(this.array, 0, temp, 0, this.size);
-                this.array = temp;
-            }
+        // Adds element to the array, returns true on success.
+        // Grows the array by the growth policy when reached capacity
+        if (this.size == this.array.length) {
+            grow(this.size + 1);
+        }
+        array[this.size++] = element;
+        return true;
+    }
 
-            array[this.size++] = element;
+    public boolean addAll(E[] elements) {
+        // Adds all the elements to the end with a single copy
+        return addAll(elements, elements.length);
+    }
 
-            return true;
+    public boolean addAll(MyArrayList<? extends E> other) {
+        // Adds all the elements of other to the end with a single copy
+        return addAll(other.array, other.size);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+    private boolean addAll(Object[] elements, int count) {
+        if (count == 0) {
             return false;
         }
+        ensureCapacity(this.size + count);
+        System.arraycopy(elements, 0, this.array, this.size, count);
+        this.size += count;
+        return true;
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        // Grows the array once so minCapacity elements fit,
+        // instead of growing it over and over while adding
+        if (minCapacity > this.array.length) {
+            grow(minCapacity);
+        }
+    }
+
+    public void trimToSize() {
+        // Shrinks the array to the number of elements
+        if (this.size < this.array.length) {
+            this.array = (this.size == 0) ? EMPTY : Arrays.copyOf(this.array, this.size);
+        }
+    }
+
+    public void setGrowthPolicy(GrowthPolicy growthPolicy) {
+        this.growthPolicy = growthPolicy;
+    }
+
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) {
+            // size + count overflowed
+            throw new OutOfMemoryError("Required array length too large");
+        }
+        int capacity = this.growthPolicy.grow(this.array.length, minCapacity);
+        if (capacity < minCapacity) {
+            throw new IllegalStateException("Growth policy returned " + capacity + " < " + minCapacity);
+        }
+        this.array = Arrays.copyOf(this.array, capacity);
     }
 
     public boolean contains(E element) {
@@ -56,9 +148,9 @@ public class MyArrayList<E> implements Iterable<E>{
     }
 
     public void clear() {
-        // Creates a new array and sets it to that
-        this.capacity = 1000;
-        this.array = new Object[capacity];
+        // Keeps the array, clearing the used slots so the
+        // elements can be collected
+        Arrays.fill(this.array, 0, this.size, null);
         this.size = 0;
     }
 
@@ -96,20 +188,69 @@ public class MyArrayList<E> implements Iterable<E>{
         // Shifts all elements down if removed
         int index = this.indexOf(element);
         if (index >= 0) {
-            for (int i = index + 1; i < this.size; i++) {
-                this.set(i - 1, this.get(i));
-            }
-            this.array[this.size - 1] = null;
-            this.size--;
+            removeAt(index);
             return true;
         }
         return false;
     }
 
+    private void removeAt(int index) {
+        // Shifts the elements after index down with a single copy
+        System.arraycopy(this.array, index + 1, this.array, index, this.size - index - 1);
+        this.array[--this.size] = null;
+    }
+
+    public void removeRange(int fromIndex, int toIndex) {
+        // Removes the elements from fromIndex up to but not
+        // including toIndex, shifting the rest down once
+        if (fromIndex < 0 || toIndex > this.size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("from: " + fromIndex + ", to: " + toIndex + ", size: " + this.size);
+        }
+        System.arraycopy(this.array, toIndex, this.array, fromIndex, this.size - toIndex);
+        int newSize = this.size - (toIndex - fromIndex);
+        Arrays.fill(this.array, newSize, this.size, null);
+        this.size = newSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super E> filter) {
+        // Tests every element before moving any, marking the matches
+        // in a bitmap, so a filter that throws leaves the list as it
+        // was. The matches are then removed in a single pass, moving
+        // each kept element down at most once
+        long[] matches = null;
+        for (int i = 0; i < this.size; i++) {
+            if (filter.test((E) this.array[i])) {
+                if (matches == null) {
+                    matches = new long[((this.size - 1) >> 6) + 1];
+                }
+                matches[i >> 6] |= 1L << i;
+            }
+        }
+        if (matches == null) {
+            return false;
+        }
+
+        int kept = 0;
+        for (int i = 0; i < this.size; i++) {
+            if ((matches[i >> 6] & (1L << i)) == 0) {
+                this.array[kept++] = this.array[i];
+            }
+        }
+        Arrays.fill(this.array, kept, this.size, null);
+        this.size = kept;
+        return true;
+    }
+
+    public boolean retainAll(Collection<?> c) {
+        // Keeps only the elements also in c, in a single pass
+        return removeIf(element -> !c.contains(element));
+    }
+
     public E set(int index, E element) {
         // Returns the element from the given index
         // And replaces that element at the given index with given element
-        if (index >= this.size) {
+        if (index < 0 || index >= this.size) {
             throw new ArrayIndexOutOfBoundsException("index > size: " + index + " >= " + this.size);
         }
         E replaced = this.get(index);
@@ -146,6 +287,173 @@ public class MyArrayList<E> implements Iterable<E>{
     }
 
 
+    @SuppressWarnings("unchecked")
+    public void replaceAll(UnaryOperator<E> operator) {
+        // Replaces every element with the result of operator
+        for (int i = 0; i < this.size; i++) {
+            this.array[i] = operator.apply((E) this.array[i]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void sort(Comparator<? super E> c) {
+        // Sorts the elements in place, stable
+        Arrays.sort((E[]) this.array, 0, this.size, c);
+    }
+
+    /** PARALLEL BULK OPERATIONS */
+
+    @SuppressWarnings("unchecked")
+    public void parallelForEach(Consumer<? super E> action) {
+        // Passes every element to action, splitting the array
+        // between the threads of the common pool
+        Object[] a = this.array;
+        forkJoin((lo, hi) -> {
+            for (int i = lo; i < hi; i++) {
+                action.accept((E) a[i]);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public void parallelReplaceAll(UnaryOperator<E> operator) {
+        // Replaces every element with the result of operator,
+        // each thread writing its own part of the array
+        Object[] a = this.array;
+        forkJoin((lo, hi) -> {
+            for (int i = lo; i < hi; i++) {
+                a[i] = operator.apply((E) a[i]);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> MyArrayList<R> parallelMap(Function<? super E, ? extends R> mapper) {
+        // Returns a list of the results of mapper on every
+        // element, filled in place by all the threads at once
+        MyArrayList<R> result = new MyArrayList<>(this.size);
+        Object[] from = this.array;
+        Object[] to = result.array;
+        forkJoin((lo, hi) -> {
+            for (int i = lo; i < hi; i++) {
+                to[i] = mapper.apply((E) from[i]);
+            }
+        });
+        result.size = this.size;
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void parallelSort(Comparator<? super E> c) {
+        // Sorts the elements in place, stable, merging sorted
+        // parts sorted by the threads of the common pool
+        Arrays.parallelSort((E[]) this.array, 0, this.size, c);
+    }
+
+    /** A loop over the elements from lo up to hi. */
+    private interface RangeAction {
+        void run(int lo, int hi);
+    }
+
+    private void forkJoin(RangeAction action) {
+        if (this.size <= PARALLEL_THRESHOLD) {
+            action.run(0, this.size);
+        } else {
+            ForkJoinPool.commonPool().invoke(new RangeTask(action, 0, this.size));
+        }
+    }
+
+    /** Splits a range in halves until they are small enough
+     * to be run by one thread.
+     */
+    @SuppressWarnings("serial")
+    private static class RangeTask extends RecursiveAction {
+        private final RangeAction action;
+        private final int lo, hi;
+
+        RangeTask(RangeAction action, int lo, int hi) {
+            this.action = action;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD) {
+                action.run(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new RangeTask(action, lo, mid), new RangeTask(action, mid, hi));
+        }
+    }
+
+    /** STREAMS */
+
+    /** Returns a spliterator over the elements that splits in
+     * halves, both knowing their exact size.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new ArrayListSpliterator(0, this.size);
+    }
+
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /** Spliterator over the elements from index up to fence. */
+    private class ArrayListSpliterator implements Spliterator<E> {
+
+        private int index;        /** Next element to return */
+        private final int fence;  /** One past the last element */
+
+        ArrayListSpliterator(int index, int fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept((E) array[index++]);
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super E> action) {
+            Object[] a = array;
+            for (int i = index; i < fence; i++) {
+                action.accept((E) a[i]);
+            }
+            index = fence;
+        }
+
+        public Spliterator<E> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            Spliterator<E> prefix = new ArrayListSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
     /** Returns an instance of the Iterator class below. */
     @Override
     public Iterator<E> iterator() {
@@ -158,6 +466,7 @@ public class MyArrayList<E> implements Iterable<E>{
     private class ArrayListIterator implements java.util.Iterator<E> {
 
         private int current = 0; /** Starts from the first element */
+        private int last = -1;   /** Index of the element last returned */
 
         /** Checks if there is another element 
          * after the current index of the iterator.
@@ -176,16 +485,20 @@ public class MyArrayList<E> implements Iterable<E>{
         @SuppressWarnings("unchecked")
         public E next() {
             if (!hasNext()) throw new java.util.NoSuchElementException();
-            return (E) array[current++];
+            last = current++;
+            return (E) array[last];
         }
 
         /**
          * Removes the current element that the iterator
-         * is at.
+         * is at, by position so an equal element earlier
+         * in the list is left alone.
          */
-        @SuppressWarnings("unchecked")
         public void remove() {
-            MyArrayList.this.remove((E)array[--current]); // reference the outer class
+            if (last < 0) throw new IllegalStateException();
+            removeAt(last); // reference the outer class
+            current = last;
+            last = -1;
         }
     }
 
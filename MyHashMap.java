@@ -1,4 +1,7 @@
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
 
 /**
  * Implements a HashMap with linear probing.
@@ -13,8 +16,12 @@ public class MyHashMap<K, V> {
 
     private MapEntry<K, V>[] table;            /** The table to contain the buckets. */
     private int size;                          /** Size of the table. */
+    private int removed;                       /** Removed entries still in the table. */
     private int STARTING_SIZE = 10;            /** Default starting size. */
     private double MAX_LOAD_FACTOR = 0.67;     /** Consant starting load factor. */
+    private HashMapStats stats;                /** Statistics, null unless enabled. */
+
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;   /** Largest array most VMs can allocate. */
 
     /** Constructor initalizes a map entry array of default starting
      * size and sets current size to 0.
@@ -25,6 +32,27 @@ public class MyHashMap<K, V> {
         this.size = 0;
     }
 
+    /**
+     * Constructor with a custom starting size and load factor, for
+     * tuning a map from the figures reported by its statistics.
+     *
+     * @param startingSize is the starting length of the table.
+     * @param maxLoadFactor is the load factor past which the table
+     * is resized.
+     * @throws IllegalArgumentException if startingSize is not positive
+     * or maxLoadFactor is not between 0 and 1.
+     */
+    @SuppressWarnings("unchecked")
+    public MyHashMap(int startingSize, double maxLoadFactor) {
+        if (startingSize <= 0 || !(maxLoadFactor > 0 && maxLoadFactor < 1)) {
+            throw new IllegalArgumentException("Invalid starting size or load factor.");
+        }
+        this.STARTING_SIZE = startingSize;
+        this.MAX_LOAD_FACTOR = maxLoadFactor;
+        this.table = (MapEntry<K, V>[]) new MapEntry<?, ?>[STARTING_SIZE];
+        this.size = 0;
+    }
+
 
     /**
      * Adds the given key-value pair to the HashMap.
@@ -53,6 +81,57 @@ public class MyHashMap<K, V> {
             resize();
         }
 
+        return putEntry(key, value);
+    }
+
+
+    /**
+     * Adds all the given key-value pairs to the HashMap, as if put
+     * was called for each pair in order. The table is grown once up
+     * front instead of being checked on every insertion.
+     *
+     * @param keys are the keys to be inserted.
+     * @param values are the values to be inserted, parallel to keys.
+     * @throws IllegalArgumentException if the arrays differ in length
+     * or hold a null, in which case nothing is inserted.
+     */
+    public void putAll(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length.");
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null || values[i] == null) {
+                throw new IllegalArgumentException("Argument cannot be null.");
+            }
+        }
+
+        ensureCapacity(size + keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            putEntry(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Adds all the entries of the given HashMap to this one,
+     * overwriting the values of keys already present.
+     *
+     * @param other is the map to copy from.
+     */
+    public void putAll(MyHashMap<? extends K, ? extends V> other) {
+        ensureCapacity(size + other.size);
+        for (int i = 0; i < other.table.length; i++) {
+            MapEntry<? extends K, ? extends V> entry = other.table[i];
+            if (entry != null && !entry.isRemoved()) {
+                putEntry(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Adds a key-value pair, the table must have room for it.
+     */
+    private V putEntry(K key, V value) {
+
         /** Get the index to insert to given the key to put 
          * to the HashMap, then get the entry at this index.
          */
@@ -60,6 +139,11 @@ public class MyHashMap<K, V> {
         MapEntry<K, V> entry = this.table[index];
         V result = null;
 
+        if (entry != null && entry.isRemoved()) {
+            /** The removed entry is reused. */
+            this.removed--;
+        }
+
         if (entry == null) {
             /** If entry is null create a new entry there and
              * insert the key value pair.
@@ -126,6 +210,7 @@ public class MyHashMap<K, V> {
         if (entry != null && entry.getKey().equals(key) && !entry.isRemoved()) {
             entry.setRemoved(true);
             size--;
+            removed++;
             return entry.getValue();
         }
 
@@ -174,11 +259,77 @@ public class MyHashMap<K, V> {
     }
 
     
+    /**
+     * Performs the given action on every key-value pair, walking
+     * the table in place without copying it. The map must not be
+     * changed by the action.
+     *
+     * @param action is called with each key and its value.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < this.table.length; i++) {
+            MapEntry<K, V> entry = this.table[i];
+            if (entry != null && !entry.isRemoved()) {
+                action.accept(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns a cursor over the entries of the HashMap that reads
+     * the table in place. The map must not be changed while the
+     * cursor is in use.
+     *
+     * @return a cursor placed before the first entry.
+     */
+    public EntryCursor cursor() {
+        return new EntryCursor();
+    }
+
+    /**
+     * Moves over the live entries of the table one at a time:
+     *
+     *   MyHashMap<K, V>.EntryCursor c = map.cursor();
+     *   while (c.next()) { use(c.key(), c.value()); }
+     */
+    public class EntryCursor {
+
+        private int index = -1;                /** Index of the current entry. */
+        private MapEntry<K, V> entry;          /** The current entry. */
+
+        /**
+         * Moves to the next entry.
+         * @return true if there is one, false at the end.
+         */
+        public boolean next() {
+            while (++index < table.length) {
+                entry = table[index];
+                if (entry != null && !entry.isRemoved()) {
+                    return true;
+                }
+            }
+            entry = null;
+            return false;
+        }
+
+        /** @return the key of the current entry. */
+        public K key() {
+            if (entry == null) throw new java.util.NoSuchElementException();
+            return entry.getKey();
+        }
+
+        /** @return the value of the current entry. */
+        public V value() {
+            if (entry == null) throw new java.util.NoSuchElementException();
+            return entry.getValue();
+        }
+    }
+
     /**
      * @return the keys within the HashMap as an ArrayList.
      */
     public MyArrayList<K> keyList() {
-        MyArrayList<K> result = new MyArrayList<>();
+        MyArrayList<K> result = new MyArrayList<>(this.size);
 
         /** Traverse the table and for each existing 
          * entry if it is not null add the associated
@@ -198,7 +349,7 @@ public class MyHashMap<K, V> {
      * @return an Arraylist of all the values within the HashMap.
      */
     public MyArrayList<V> values() {
-        MyArrayList<V> result = new MyArrayList<>();
+        MyArrayList<V> result = new MyArrayList<>(this.size);
 
 
         /** Traverse the map and add the value of each entry
@@ -213,6 +364,67 @@ public class MyHashMap<K, V> {
         return result;
     }
 
+    /**
+     * Writes the entries of the HashMap to a snapshot file that can
+     * later be reopened through MappedHashMapSnapshot.open without
+     * rebuilding the map. The layout is described there.
+     *
+     * @param path is the file to write, replaced if it exists.
+     * @param keyCodec turns the keys into bytes.
+     * @param valueCodec turns the values into bytes.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeSnapshot(Path path, Codec<K> keyCodec,
+            Codec<V> valueCodec) throws IOException {
+        byte[][] keys = new byte[this.size][];
+        byte[][] values = new byte[this.size][];
+        int count = 0;
+
+        /** Encode every live entry of the table. */
+        for (int i = 0; i < this.table.length; i++) {
+            MapEntry<K, V> entry = this.table[i];
+            if (entry != null && !entry.isRemoved()) {
+                keys[count] = keyCodec.encode(entry.getKey());
+                values[count] = valueCodec.encode(entry.getValue());
+                count++;
+            }
+        }
+
+        MappedHashMapSnapshot.write(path, keys, values, count);
+    }
+
+    /**
+     * Starts recording statistics for this map. Until this is called
+     * the map records nothing.
+     *
+     * @return the statistics of the map, which can also be registered
+     * with an MBean server.
+     */
+    public HashMapStats enableStats() {
+        if (this.stats == null) {
+            this.stats = new HashMapStats(this);
+        }
+        return this.stats;
+    }
+
+    /**
+     * @return the statistics of the map, null if they were
+     * never enabled.
+     */
+    public HashMapStats getStats() {
+        return this.stats;
+    }
+
+    /** @return the length of the table. */
+    int capacity() {
+        return this.table.length;
+    }
+
+    /** @return the number of removed entries still in the table. */
+    int removedCount() {
+        return this.removed;
+    }
+
     /** PRIVATE HELPERS */
 
     /**
@@ -224,18 +436,78 @@ public class MyHashMap<K, V> {
         return (double) (size + 1) / (double) this.table.length;
     }
 
+    /**
+     * Grows the table once so that it can hold the given number
+     * of entries without passing the load factor.
+     *
+     * @param count the number of entries to make room for.
+     * @throws OutOfMemoryError if no table is large enough.
+     */
+    private void ensureCapacity(int count) {
+        int length = tableLength(this.table.length, count, MAX_LOAD_FACTOR);
+        if (length != this.table.length) {
+            resize(length);
+        }
+    }
+
     /**
      * Doubles the size of the HashMap and copies the current HashMap
      * into it.
+     *
+     * @throws OutOfMemoryError if the table cannot grow any more.
      */
-    @SuppressWarnings("unchecked")
     private void resize() {
+        resize(tableLength(this.table.length, this.size + 1, MAX_LOAD_FACTOR));
+    }
+
+    /**
+     * Doubles the given table length until the given number of
+     * entries fit without passing the load factor. Near the top the
+     * length is clamped to MAX_CAPACITY rather than left to overflow,
+     * like the growth of MyArrayList.
+     *
+     * @param length the current length of the table.
+     * @param count the number of entries to make room for, negative
+     * if computing it overflowed.
+     * @param maxLoadFactor the load factor not to pass.
+     * @return the new length, the given one if it is large enough.
+     * @throws OutOfMemoryError if even a table of MAX_CAPACITY
+     * would pass the load factor.
+     */
+    static int tableLength(int length, int count, double maxLoadFactor) {
+        if (count < 0 || (double) count / MAX_CAPACITY > maxLoadFactor) {
+            throw new OutOfMemoryError("Required table length too large for "
+                    + Integer.toUnsignedLong(count) + " entries");
+        }
+        long grown = length;
+        while ((double) count / grown > maxLoadFactor) {
+            grown = Math.min(grown * 2, MAX_CAPACITY);
+        }
+        return (int) grown;
+    }
+
+    /**
+     * Creates a table of the given length and copies the current
+     * HashMap into it.
+     *
+     * @param length the length of the new table.
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int length) {
+        /** Rehashing is not counted in the probe statistics,
+         * only its duration is recorded.
+         */
+        HashMapStats recording = this.stats;
+        this.stats = null;
+        long start = (recording != null ? System.nanoTime() : 0);
+
         /** Keep a copy of the current table and then create a 
-         * new one of double the size.
+         * new one of the given size.
          */
         MapEntry<K, V>[] temp = this.table;
-        this.table = (MapEntry<K, V>[]) new MapEntry[temp.length * 2];
+        this.table = (MapEntry<K, V>[]) new MapEntry<?, ?>[length];
         this.size = 0;
+        this.removed = 0;
 
         /** Traverse the previous table and place all 
          * entries into the new instance given not null.
@@ -247,6 +519,10 @@ public class MyHashMap<K, V> {
             }
         }
 
+        if (recording != null) {
+            recording.recordResize(System.nanoTime() - start);
+            this.stats = recording;
+        }
     }
 
     /**
@@ -262,12 +538,14 @@ public class MyHashMap<K, V> {
         int firstRemoved = -1;
         int curIndex = index;
         boolean looped = false;
+        int probes = 0;
 
         while (curEntry != null && !curEntry.getKey().equals(key)
                 && (!looped || curIndex != index)) {
+            probes++;
             if (firstRemoved == -1 && curEntry.isRemoved()) {
                 // Record first removed
-                firstRemoved = index;
+                firstRemoved = curIndex;
             }
 
             if (++curIndex >= this.table.length) {
@@ -278,6 +556,9 @@ public class MyHashMap<K, V> {
 
             curEntry = this.table[curIndex];
         }
+        if (this.stats != null) {
+            this.stats.recordProbe(probes);
+        }
         if (curEntry != null && curEntry.getKey().equals(key)) {
             return curIndex;
         } else {
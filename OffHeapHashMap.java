@@ -0,0 +1,464 @@
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Implements a HashMap with linear probing whose entries live
+ * outside the Java heap, in a direct ByteBuffer.
+ *
+ * Keys and values have a fixed width in bytes chosen when the
+ * map is made, either byte[] records of that length or longs
+ * when both widths are 8. Every slot of the table is laid out as
+ *
+ *   [state: 1 byte][key: keyWidth bytes][value: valueWidth bytes]
+ *
+ * where state is EMPTY, FULL or REMOVED. As in MyHashMap a removed
+ * slot is kept as a marker until the next resize, and put() reuses
+ * the first removed slot found on the way to an empty one.
+ *
+ * The garbage collector only sees the ByteBuffer object, never the
+ * entries. close() should be called once the map is no longer needed
+ * so that the native memory is given back straight away.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class OffHeapHashMap implements AutoCloseable {
+
+    private static final byte EMPTY = 0;       /** State of a slot never used. */
+    private static final byte FULL = 1;        /** State of a slot holding an entry. */
+    private static final byte REMOVED = 2;     /** State of a slot whose entry was removed. */
+
+    private final int keyWidth;                /** Number of bytes in a key. */
+    private final int valueWidth;              /** Number of bytes in a value. */
+    private final int slotWidth;               /** Number of bytes in a slot. */
+    private final long noEntryValue;           /** Returned by the long methods in place of null. */
+    private ByteBuffer table;                  /** The slots, null once closed. */
+    private int capacity;                      /** Number of slots, a power of two. */
+    private int size;                          /** Number of entries in the map. */
+    private int used;                          /** Number of slots that are not EMPTY. */
+    private int STARTING_SIZE = 16;            /** Default starting size. */
+    private double MAX_LOAD_FACTOR = 0.67;     /** Consant starting load factor. */
+
+    /**
+     * Construct a map of long keys to long values, returning 0
+     * for missing keys.
+     */
+    public OffHeapHashMap() {
+        this(8, 8, 0);
+    }
+
+    /**
+     * Construct a map for keys and values of the given widths.
+     *
+     * @param keyWidth is the number of bytes in every key.
+     * @param valueWidth is the number of bytes in every value.
+     * @throws IllegalArgumentException if a width is not positive.
+     */
+    public OffHeapHashMap(int keyWidth, int valueWidth) {
+        this(keyWidth, valueWidth, 0);
+    }
+
+    /**
+     * Construct a map for keys and values of the given widths.
+     *
+     * @param keyWidth is the number of bytes in every key.
+     * @param valueWidth is the number of bytes in every value.
+     * @param noEntryValue is returned by the long methods when
+     * the key was not in the map.
+     * @throws IllegalArgumentException if a width is not positive.
+     */
+    public OffHeapHashMap(int keyWidth, int valueWidth, long noEntryValue) {
+        if (keyWidth <= 0 || valueWidth <= 0) {
+            throw new IllegalArgumentException("Widths must be positive.");
+        }
+        this.keyWidth = keyWidth;
+        this.valueWidth = valueWidth;
+        this.slotWidth = 1 + keyWidth + valueWidth;
+        this.noEntryValue = noEntryValue;
+        this.capacity = STARTING_SIZE;
+        this.table = allocate(capacity);
+        this.size = 0;
+        this.used = 0;
+    }
+
+
+    /**
+     * Adds the given key-value pair to the map.
+     * If the key is already in the map, the value is overwritten.
+     *
+     * @param key is the key to inserted.
+     * @param value is the value to be inserted.
+     * @throws IllegalArgumentException if key or value is null or
+     * not of the widths of the map.
+     * @return null if the key was not already in the map.  If it was in the
+     * map, return a copy of the old value associated with it.
+     */
+    public byte[] put(byte[] key, byte[] value) {
+        checkKey(key);
+        if (value == null || value.length != valueWidth) {
+            throw new IllegalArgumentException("Value must be " + valueWidth + " bytes.");
+        }
+
+        int index = put(hash(key), key, 0L);
+        byte[] result = null;
+        if (index < 0) {
+            index = -index - 1;
+            result = new byte[valueWidth];
+            table.get(valueOffset(index), result);
+        }
+        table.put(valueOffset(index), value);
+        return result;
+    }
+
+    /**
+     * Adds the given long key-value pair to the map.
+     * If the key is already in the map, the value is overwritten.
+     *
+     * @param key is the key to inserted.
+     * @param value is the value to be inserted.
+     * @throws IllegalStateException if the map is not of longs.
+     * @return noEntryValue if the key was not already in the map. If it
+     * was in the map, return the old value associated with it.
+     */
+    public long put(long key, long value) {
+        checkLongs();
+        int index = put(hash(key), null, key);
+        long result = noEntryValue;
+        if (index < 0) {
+            index = -index - 1;
+            result = table.getLong(valueOffset(index));
+        }
+        table.putLong(valueOffset(index), value);
+        return result;
+    }
+
+
+    /**
+     * Removes the value associated with the key from the map.
+     *
+     * @param key is the key to remove.
+     * @throws IllegalArgumentException if key is null or not of
+     * the key width of the map.
+     * @return null if the key was not already in the map.  If it was in the
+     * map, return a copy of the old value associated with it.
+     */
+    public byte[] remove(byte[] key) {
+        checkKey(key);
+        int index = find(hash(key), key, 0L);
+        if (index < 0) {
+            return null;
+        }
+        byte[] result = new byte[valueWidth];
+        table.get(valueOffset(index), result);
+        markRemoved(index);
+        return result;
+    }
+
+    /**
+     * Removes the value associated with the long key from the map.
+     *
+     * @param key is the key to remove.
+     * @throws IllegalStateException if the map is not of longs.
+     * @return noEntryValue if the key was not already in the map. If it
+     * was in the map, return the old value associated with it.
+     */
+    public long remove(long key) {
+        checkLongs();
+        int index = find(hash(key), null, key);
+        if (index < 0) {
+            return noEntryValue;
+        }
+        long result = table.getLong(valueOffset(index));
+        markRemoved(index);
+        return result;
+    }
+
+
+    /**
+     * Gets the value associated with the given key.
+     *
+     * @param key is the key to be looked up.
+     * @throws IllegalArgumentException if key is null or not of
+     * the key width of the map.
+     * @return a copy of the value associated with the given key,
+     * null if there is none.
+     */
+    public byte[] get(byte[] key) {
+        byte[] result = new byte[valueWidth];
+        return get(key, result) ? result : null;
+    }
+
+    /**
+     * Copies the value associated with the given key into dest,
+     * without allocating.
+     *
+     * @param key is the key to be looked up.
+     * @param dest receives the value, at least valueWidth long.
+     * @throws IllegalArgumentException if key is null or not of
+     * the key width of the map.
+     * @return true if the key was found, false otherwise.
+     */
+    public boolean get(byte[] key, byte[] dest) {
+        checkKey(key);
+        int index = find(hash(key), key, 0L);
+        if (index < 0) {
+            return false;
+        }
+        table.get(valueOffset(index), dest, 0, valueWidth);
+        return true;
+    }
+
+    /**
+     * Gets the value associated with the given long key.
+     *
+     * @param key is the key to be looked up.
+     * @throws IllegalStateException if the map is not of longs.
+     * @return the value associated with the given key,
+     * noEntryValue if there is none.
+     */
+    public long get(long key) {
+        checkLongs();
+        int index = find(hash(key), null, key);
+        return index < 0 ? noEntryValue : table.getLong(valueOffset(index));
+    }
+
+
+    /**
+     * Returns whether or not the key is in the map.
+     *
+     * @param key is the key to be looked up.
+     * @throws IllegalArgumentException if key is null or not of
+     * the key width of the map.
+     * @return true if the key is in the map, false otherwise.
+     */
+    public boolean containsKey(byte[] key) {
+        checkKey(key);
+        return find(hash(key), key, 0L) >= 0;
+    }
+
+    /**
+     * Returns whether or not the long key is in the map.
+     *
+     * @param key is the key to be looked up.
+     * @throws IllegalStateException if the map is not of longs.
+     * @return true if the key is in the map, false otherwise.
+     */
+    public boolean containsKey(long key) {
+        checkLongs();
+        return find(hash(key), null, key) >= 0;
+    }
+
+    /**
+     * @return number of elements in the map.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Frees the native memory of the table. The map cannot be
+     * used afterwards, calling close() again does nothing.
+     */
+    @Override
+    public void close() {
+        if (table != null) {
+            Buffers.free(table);
+            table = null;
+            size = 0;
+        }
+    }
+
+    /** PRIVATE HELPERS */
+
+    /**
+     * Finds the slot of a key, the key is given as a byte array or,
+     * when keyBytes is null, as a long.
+     *
+     * @return the index of the key, or -1 if it is not in the map.
+     */
+    private int find(int hash, byte[] keyBytes, long keyLong) {
+        checkOpen();
+        int mask = capacity - 1;
+        int index = hash & mask;
+
+        /** The table is never full, so an empty slot ends
+         * every search.
+         */
+        for (byte state; (state = table.get(index * slotWidth)) != EMPTY; index = (index + 1) & mask) {
+            if (state == FULL && keyEquals(index, keyBytes, keyLong)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the slot to put the key into, adding the key and
+     * marking the slot FULL if it is new. The value is left to
+     * the caller.
+     *
+     * @return the index of a new slot, or -(index + 1) if the key
+     * was already in the map.
+     */
+    private int put(int hash, byte[] keyBytes, long keyLong) {
+        checkOpen();
+        int found = find(hash, keyBytes, keyLong);
+        if (found >= 0) {
+            return -found - 1;
+        }
+
+        if ((double) (used + 1) / capacity > MAX_LOAD_FACTOR) {
+            resize();
+        }
+
+        int mask = capacity - 1;
+        int index = hash & mask;
+        byte state;
+        while ((state = table.get(index * slotWidth)) == FULL) {
+            index = (index + 1) & mask;
+        }
+
+        /** A removed slot is reused, an empty one is
+         * newly used.
+         */
+        if (state == EMPTY) {
+            used++;
+        }
+        table.put(index * slotWidth, FULL);
+        if (keyBytes != null) {
+            table.put(index * slotWidth + 1, keyBytes);
+        } else {
+            table.putLong(index * slotWidth + 1, keyLong);
+        }
+        size++;
+        return index;
+    }
+
+    /** Marks the slot REMOVED and updates the size. */
+    private void markRemoved(int index) {
+        table.put(index * slotWidth, REMOVED);
+        size--;
+    }
+
+    /**
+     * Compares the key stored at the slot with the given key,
+     * given as a byte array or, when keyBytes is null, as a long.
+     */
+    private boolean keyEquals(int index, byte[] keyBytes, long keyLong) {
+        int offset = index * slotWidth + 1;
+        if (keyBytes == null) {
+            return table.getLong(offset) == keyLong;
+        }
+        for (int i = 0; i < keyWidth; i++) {
+            if (table.get(offset + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** @return the offset of the value of the slot at index. */
+    private int valueOffset(int index) {
+        return index * slotWidth + 1 + keyWidth;
+    }
+
+    /**
+     * Hashes the bytes of a key. A long key hashes the same as
+     * its 8 little-endian bytes, so both APIs agree.
+     */
+    private static int hash(byte[] key) {
+        long h = 0;
+        for (int i = key.length - 1; i >= 0; i--) {
+            h = Long.rotateLeft(h, 8) ^ (key[i] & 0xff);
+        }
+        return mix(h);
+    }
+
+    /** Hashes a long key, see hash(byte[]). */
+    private static int hash(long key) {
+        return mix(key);
+    }
+
+    /** Spreads the bits of h over the low bits used for the index. */
+    private static int mix(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        int x = (int) (h ^ (h >>> 32));
+        return x ^ (x >>> 16);
+    }
+
+    /**
+     * Doubles the table, or only rebuilds it when most used slots
+     * are removed ones, copying the entries into a new buffer and
+     * freeing the old one.
+     */
+    private void resize() {
+        ByteBuffer old = this.table;
+        int oldCapacity = this.capacity;
+
+        int newCapacity = oldCapacity;
+        if ((double) (size + 1) / oldCapacity > MAX_LOAD_FACTOR / 2) {
+            newCapacity = oldCapacity * 2;
+        }
+        if ((long) newCapacity * slotWidth > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Map cannot grow past " + oldCapacity + " slots.");
+        }
+
+        ByteBuffer tab = allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            int from = i * slotWidth;
+            if (old.get(from) != FULL) {
+                continue;
+            }
+
+            int index = hashAt(old, from + 1) & mask;
+            while (tab.get(index * slotWidth) != EMPTY) {
+                index = (index + 1) & mask;
+            }
+
+            /** Copy the whole slot, state included. */
+            tab.put(index * slotWidth, old, from, slotWidth);
+        }
+
+        this.table = tab;
+        this.capacity = newCapacity;
+        this.used = size;
+        Buffers.free(old);
+    }
+
+    /** Hashes the key stored at the given offset of a buffer. */
+    private int hashAt(ByteBuffer buffer, int offset) {
+        if (keyWidth == 8) {
+            return hash(buffer.getLong(offset));
+        }
+        long h = 0;
+        for (int i = keyWidth - 1; i >= 0; i--) {
+            h = Long.rotateLeft(h, 8) ^ (buffer.get(offset + i) & 0xff);
+        }
+        return mix(h);
+    }
+
+    /** @return a zeroed direct buffer with room for the given slots. */
+    private ByteBuffer allocate(int slots) {
+        return ByteBuffer.allocateDirect(slots * slotWidth).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void checkOpen() {
+        if (table == null) {
+            throw new IllegalStateException("Map is closed.");
+        }
+    }
+
+    private void checkKey(byte[] key) {
+        if (key == null || key.length != keyWidth) {
+            throw new IllegalArgumentException("Key must be " + keyWidth + " bytes.");
+        }
+    }
+
+    private void checkLongs() {
+        if (keyWidth != 8 || valueWidth != 8) {
+            throw new IllegalStateException("Map is not of long keys and values.");
+        }
+    }
+}
@@ -0,0 +1,327 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable node of a PersistentBST. Once made it never changes,
+ * so it can be shared between any number of tree versions.
+ */
+final class PersistentNode<T>
+{
+  final T data;
+  final PersistentNode<T> left, right;
+  final int height;
+  final int count;    /** Number of nodes in the subtree rooted here. */
+
+  PersistentNode(T data, PersistentNode<T> left, PersistentNode<T> right)
+  {
+    this.data = data;
+    this.left = left;
+    this.right = right;
+    this.height = 1 + Math.max(left == null ? 0 : left.height, right == null ? 0 : right.height);
+    this.count = 1 + (left == null ? 0 : left.count) + (right == null ? 0 : right.count);
+  }
+}
+
+/**
+ * A persistent AVL tree. Nodes are never modified: insert and
+ * delete copy the O(log n) nodes on the path they change and share
+ * every other node with the previous version, then publish the
+ * new root through a volatile field.
+ *
+ * snapshot() is O(1) and returns a tree fixed at the current
+ * version, which any number of threads can read without locks
+ * while the writer keeps changing this tree. Changes made to a
+ * snapshot do not affect the tree it was taken from either.
+ * Writes are synchronized, so a single writer never waits.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class PersistentBST<T> implements Iterable<T>
+{
+  private volatile PersistentNode<T> root;   /** Root of the current version. */
+  private final Comparator<T> comparator;    /** The comparator ordering the nodes. */
+
+  /** Constructors */
+
+  @SuppressWarnings("unchecked")
+  public PersistentBST() {
+    this((Comparator<T>) Comparator.naturalOrder());
+  }
+
+  /** Construct a tree with a custom Comparator. */
+  public PersistentBST(Comparator<T> comparator) {
+    this(comparator, null);
+  }
+
+  private PersistentBST(Comparator<T> comparator, PersistentNode<T> root) {
+    this.comparator = comparator;
+    this.root = root;
+  }
+
+  /**
+   * Returns the number of nodes in the current version.
+   * @return number of nodes in the tree.
+   */
+  public int size() {
+    PersistentNode<T> r = root;
+    return (r == null) ? 0 : r.count;
+  }
+
+  /**
+   * Clear a tree instance. Snapshots keep their nodes.
+   */
+  public synchronized void clear() {
+    this.root = null;
+  }
+
+  /**
+   * Returns a tree holding the current version, sharing all its
+   * nodes. Runs in O(1).
+   * @return the snapshot.
+   */
+  public PersistentBST<T> snapshot() {
+    return new PersistentBST<T>(comparator, root);
+  }
+
+
+  /**
+   * Adds a node, publishing a new version that shares all the
+   * nodes off the insertion path with the previous one.
+   * @param data is the generic data to be added.
+   * @return true if added, false if an equal node was already
+   * in the tree.
+   */
+  public synchronized boolean insert(T data)
+  {
+    PersistentNode<T> current = root;
+    PersistentNode<T> result = insert(current, data);
+    if (result == current)
+      return false;
+
+    root = result;
+    return true;
+  }
+
+  /**
+   * Helper for insert, copies the nodes on the way down to
+   * the new leaf and rebalances them.
+   * @param node is the root of the subtree.
+   * @param data is the node to be inserted.
+   * @return the new root of the subtree, node itself if data
+   * was already in it.
+   */
+  private PersistentNode<T> insert(PersistentNode<T> node, T data)
+  {
+    if (node == null)
+      return new PersistentNode<T>(data, null, null);
+
+    int cmp = comparator.compare(data, node.data);
+    if (cmp == 0)
+      return node;
+
+    if (cmp < 0) {
+      PersistentNode<T> left = insert(node.left, data);
+      return (left == node.left) ? node : balance(node.data, left, node.right);
+    }
+    PersistentNode<T> right = insert(node.right, data);
+    return (right == node.right) ? node : balance(node.data, node.left, right);
+  }
+
+
+  /**
+   * Removes a node, publishing a new version that shares all
+   * the nodes off the deletion path with the previous one.
+   * @param data is the node to be removed.
+   * @return true if the node was found and removed,
+   * false otherwise.
+   */
+  public synchronized boolean delete(T data)
+  {
+    PersistentNode<T> current = root;
+    PersistentNode<T> result = delete(current, data);
+    if (result == current)
+      return false;
+
+    root = result;
+    return true;
+  }
+
+  /**
+   * Helper for delete, copies the nodes on the way down to the
+   * removed one and rebalances them.
+   * @param node is the root of the subtree.
+   * @param data is the node to be deleted.
+   * @return the new root of the subtree, node itself if data
+   * was not in it.
+   */
+  private PersistentNode<T> delete(PersistentNode<T> node, T data)
+  {
+    if (node == null)
+      return null;
+
+    int cmp = comparator.compare(data, node.data);
+    if (cmp < 0) {
+      PersistentNode<T> left = delete(node.left, data);
+      return (left == node.left) ? node : balance(node.data, left, node.right);
+    }
+    if (cmp > 0) {
+      PersistentNode<T> right = delete(node.right, data);
+      return (right == node.right) ? node : balance(node.data, node.left, right);
+    }
+
+    /** The node to delete has been found. With two
+     * children it is replaced by the smallest node of
+     * its right subtree. */
+    if (node.left == null)
+      return node.right;
+    if (node.right == null)
+      return node.left;
+
+    PersistentNode<T> min = node.right;
+    while (min.left != null)
+      min = min.left;
+    return balance(min.data, node.left, deleteMin(node.right));
+  }
+
+  /**
+   * Copies the path to the smallest node of a subtree without it.
+   * @param node is the root of the subtree.
+   * @return the new root of the subtree.
+   */
+  private PersistentNode<T> deleteMin(PersistentNode<T> node)
+  {
+    if (node.left == null)
+      return node.right;
+    return balance(node.data, deleteMin(node.left), node.right);
+  }
+
+
+  /**
+   * Returns true if the value is contained in the current
+   * version and false otherwise.
+   * @param data the value that's being searched for.
+   * @return true if found, false otherwise.
+   */
+  public boolean contains(T data)
+  {
+    return find(data) != null;
+  }
+
+  /**
+   * Given some node the current version is searched for a node
+   * comparing equal to it.
+   * @param data is the node to get.
+   * @return the node with the matching fields.
+   */
+  public T get(T data)
+  {
+    PersistentNode<T> node = find(data);
+    return (node == null) ? null : node.data;
+  }
+
+  /**
+   * Iterative binary search in the current version.
+   * @param data is the node being searched for.
+   * @return the node found, null if not in tree.
+   */
+  private PersistentNode<T> find(T data)
+  {
+    PersistentNode<T> current = root;
+    while (current != null) {
+      int cmp = comparator.compare(data, current.data);
+      if (cmp == 0)
+        return current;
+      current = (cmp < 0) ? current.left : current.right;
+    }
+    return null;
+  }
+
+  /**
+   * Returns an iterator over the version current when it is
+   * made, unaffected by later changes.
+   * @return the iterator.
+   */
+  @Override
+  public Iterator<T> iterator()
+  {
+    return new TreeIterator(root);
+  }
+
+  /**
+   * Inorder iterator keeping the nodes still to be visited
+   * on an explicit stack.
+   */
+  private class TreeIterator implements Iterator<T>
+  {
+    private final PersistentNode<T>[] stack;   /** Nodes yet to be returned. */
+    private int top;                           /** Number of nodes on the stack. */
+
+    @SuppressWarnings("unchecked")
+    TreeIterator(PersistentNode<T> root)
+    {
+      stack = (PersistentNode<T>[]) new PersistentNode<?>[height(root) + 1];
+      for (PersistentNode<T> current = root; current != null; current = current.left)
+        stack[top++] = current;
+    }
+
+    public boolean hasNext()
+    {
+      return top > 0;
+    }
+
+    public T next()
+    {
+      if (!hasNext()) throw new NoSuchElementException();
+
+      PersistentNode<T> node = stack[--top];
+      for (PersistentNode<T> current = node.right; current != null; current = current.left)
+        stack[top++] = current;
+      return node.data;
+    }
+  }
+
+  /** BALANCING HELPERS */
+
+  private int height(PersistentNode<T> n) {
+    return (n == null) ? 0 : n.height;
+  }
+
+  /**
+   * Makes a node out of data and two subtrees whose heights
+   * differ by at most 2, rotating if they differ by 2. Only
+   * new nodes are made, the subtrees are left as they are.
+   * @return the root of the balanced subtree.
+   */
+  private PersistentNode<T> balance(T data, PersistentNode<T> left, PersistentNode<T> right)
+  {
+    int balance = height(left) - height(right);
+
+    /** Left Left and Left Right Cases */
+    if (balance > 1) {
+      if (height(left.left) >= height(left.right))
+        return new PersistentNode<T>(left.data, left.left,
+          new PersistentNode<T>(data, left.right, right));
+
+      PersistentNode<T> lr = left.right;
+      return new PersistentNode<T>(lr.data,
+        new PersistentNode<T>(left.data, left.left, lr.left),
+        new PersistentNode<T>(data, lr.right, right));
+    }
+
+    /** Right Right and Right Left Cases */
+    if (balance < -1) {
+      if (height(right.right) >= height(right.left))
+        return new PersistentNode<T>(right.data,
+          new PersistentNode<T>(data, left, right.left), right.right);
+
+      PersistentNode<T> rl = right.left;
+      return new PersistentNode<T>(rl.data,
+        new PersistentNode<T>(data, left, rl.left),
+        new PersistentNode<T>(right.data, rl.right, right.right));
+    }
+
+    return new PersistentNode<T>(data, left, right);
+  }
+}
@@ -0,0 +1,301 @@
+
+
+/**
+ * Implements a HashMap with Robin Hood linear probing.
+ *
+ * Keys, values and hashes are kept in flat parallel arrays
+ * so that no entry objects are allocated. The table length
+ * is always a power of two and every hashcode is mixed before
+ * use, so the index is taken with a mask instead of a modulo.
+ * On insertion an entry that has probed further than the one
+ * sitting in a slot takes the slot over, which keeps probe
+ * lengths short and even. Removal shifts the rest of the run
+ * back by one slot instead of leaving a removed marker behind.
+ *
+ * Has the same put/get/remove/containsKey/size contract as
+ * MyHashMap.
+ *
+ * @param <K> type of keys.
+ * @param <V> type of values.
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class RobinHoodHashMap<K, V> {
+
+    private static final int EMPTY = 0;        /** Hash of an empty slot, real hashes are never 0. */
+
+    private Object[] keys;                     /** The keys of the table. */
+    private Object[] values;                   /** The values, parallel to keys. */
+    private int[] hashes;                      /** The mixed hash of each key, EMPTY if the slot is free. */
+    private int mask;                          /** Table length - 1. */
+    private int size;                          /** Number of entries in the map. */
+    private int STARTING_SIZE = 16;            /** Default starting size, a power of two. */
+    private double MAX_LOAD_FACTOR = 0.8;      /** Constant load factor. */
+
+    /** Constructor initalizes the arrays with the default
+     * starting size and sets current size to 0.
+     */
+    public RobinHoodHashMap() {
+        this.keys = new Object[STARTING_SIZE];
+        this.values = new Object[STARTING_SIZE];
+        this.hashes = new int[STARTING_SIZE];
+        this.mask = STARTING_SIZE - 1;
+        this.size = 0;
+    }
+
+
+    /**
+     * Adds the given key-value pair to the HashMap.
+     * If the key is already in the HashMap, the value is overwritten.
+     *
+     * @param key is the key to inserted.
+     * @param value is the value to be inserted.
+     * @throws IllegalArgumentException if key or value is null.
+     * @return null if the key was not already in the map.  If it was in the
+     * map, return the old value associated with it.
+     */
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Argument cannot be null.");
+        }
+
+        int hash = hash(key);
+        int index = this.getIndex(key, hash);
+        if (index >= 0) {
+            V result = valueAt(index);
+            this.values[index] = value;
+            return result;
+        }
+
+        /** The key is new, make room for it before
+         * it is placed into the table.
+         */
+        if (this.getNextLoadFactor() > MAX_LOAD_FACTOR) {
+            resize();
+        }
+
+        insert(key, value, hash);
+        size++;
+        return null;
+    }
+
+
+    /**
+     * Removes the value associated with the key from the map.
+     *
+     * @param key is the key to remove.
+     * @throws IllegalArgumentException if key is null.
+     * @return null if the key was not already in the map.  If it was in the
+     * map, return the old value associated with it.
+     */
+    public V remove(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Argument cannot be null.");
+        }
+
+        int index = this.getIndex(key, hash(key));
+        if (index < 0) {
+            return null;
+        }
+
+        V result = valueAt(index);
+
+        /** Pull every following entry of the run one slot
+         * back until an empty slot or an entry already in
+         * its home slot is reached.
+         */
+        int next = (index + 1) & mask;
+        while (hashes[next] != EMPTY && distance(next) > 0) {
+            keys[index] = keys[next];
+            values[index] = values[next];
+            hashes[index] = hashes[next];
+            index = next;
+            next = (next + 1) & mask;
+        }
+        keys[index] = null;
+        values[index] = null;
+        hashes[index] = EMPTY;
+
+        size--;
+        return result;
+    }
+
+
+    /**
+     * Gets the value associated with the given key.
+     *
+     * @param key is the key to be looked up.
+     * @throws IllegalArgumentException if key is null.
+     * @return the value associated with the given key.
+     */
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Argument cannot be null.");
+        }
+
+        int index = this.getIndex(key, hash(key));
+        return index >= 0 ? valueAt(index) : null;
+    }
+
+
+    /**
+     * Returns whether or not the key is in the map.
+     *
+     * @param key is the key to be looked up.
+     * @throws IllegalArgumentException if key is null
+     * @return true if the key is in the map, false otherwise.
+     */
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return number of elements in the HashMap.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the keys within the HashMap as an ArrayList.
+     */
+    @SuppressWarnings("unchecked")
+    public MyArrayList<K> keyList() {
+        MyArrayList<K> result = new MyArrayList<>(this.size);
+        for (int i = 0; i < this.hashes.length; i++) {
+            if (hashes[i] != EMPTY) {
+                result.add((K) keys[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return an Arraylist of all the values within the HashMap.
+     */
+    public MyArrayList<V> values() {
+        MyArrayList<V> result = new MyArrayList<>(this.size);
+        for (int i = 0; i < this.hashes.length; i++) {
+            if (hashes[i] != EMPTY) {
+                result.add(valueAt(i));
+            }
+        }
+        return result;
+    }
+
+    /** PRIVATE HELPERS */
+
+    /**
+     * Mixes the hashcode of the key so that poor hashcodes
+     * still spread over the low bits used for the index.
+     *
+     * @param key the key to hash.
+     * @return the mixed hash, never EMPTY.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) | 0x80000000;
+    }
+
+    /**
+     * @param index a non-empty slot of the table.
+     * @return how far the entry at index sits from its home slot.
+     */
+    private int distance(int index) {
+        return (index - (hashes[index] & mask)) & mask;
+    }
+
+    /**
+     * @param index a slot of the table.
+     * @return the value stored at the slot.
+     */
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    /**
+     * Looks the key up. The search stops early once it reaches
+     * an entry closer to its home slot than the key would be,
+     * since Robin Hood insertion would have placed the key there.
+     *
+     * @param key the key to look up.
+     * @param hash the mixed hash of the key.
+     * @return the index of the key, or -1 if it is not in the map.
+     */
+    private int getIndex(Object key, int hash) {
+        int index = hash & mask;
+        int dist = 0;
+        while (hashes[index] != EMPTY && distance(index) >= dist) {
+            if (hashes[index] == hash && keys[index].equals(key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+            dist++;
+        }
+        return -1;
+    }
+
+    /**
+     * Places an entry that is known not to be in the map, taking
+     * over any slot whose entry is closer to home than the one
+     * being placed and carrying the displaced entry onwards.
+     *
+     * @param key the key to place.
+     * @param value the value to place.
+     * @param hash the mixed hash of the key.
+     */
+    private void insert(Object key, Object value, int hash) {
+        int index = hash & mask;
+        int dist = 0;
+        while (hashes[index] != EMPTY) {
+            int existing = distance(index);
+            if (existing < dist) {
+                Object k = keys[index];
+                Object v = values[index];
+                int h = hashes[index];
+                keys[index] = key;
+                values[index] = value;
+                hashes[index] = hash;
+                key = k;
+                value = v;
+                hash = h;
+                dist = existing;
+            }
+            index = (index + 1) & mask;
+            dist++;
+        }
+        keys[index] = key;
+        values[index] = value;
+        hashes[index] = hash;
+    }
+
+    /**
+     * Calculates the load factor if another element is added the HashMap.
+     *
+     * @return Returns the load factor.
+     */
+    private double getNextLoadFactor() {
+        return (double) (size + 1) / (double) this.hashes.length;
+    }
+
+    /**
+     * Doubles the size of the table and places the current
+     * entries into it.
+     */
+    private void resize() {
+        Object[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        int[] oldHashes = this.hashes;
+        this.keys = new Object[oldHashes.length * 2];
+        this.values = new Object[oldHashes.length * 2];
+        this.hashes = new int[oldHashes.length * 2];
+        this.mask = this.hashes.length - 1;
+
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != EMPTY) {
+                insert(oldKeys[i], oldValues[i], oldHashes[i]);
+            }
+        }
+    }
+}
@@ -22,13 +22,13 @@ public class SinglyLinkedList<E> {
     }
     
     public void addFirst(E e) {
-        head = new Node(e, head);
+        head = new Node<>(e, head);
         if ( size == 0 ) tail = head;
         size++;
     }
 
     public void addLast(E e) {
-        Node<E> temp = new Node(e, null);
+        Node<E> temp = new Node<>(e, null);
         if ( isEmpty() ) {
             head = temp;
         } else {
@@ -62,18 +62,18 @@ public class SinglyLinkedList<E> {
 
 
     }
-}
 
-class Node<T> {
-    private T elem;
-    private Node<T> next;
+    private static class Node<T> {
+        private T elem;
+        private Node<T> next;
 
-    public Node( T e, Node<T> n ) {
-        this.elem = e;
-        this.next = n;
-    }
+        public Node( T e, Node<T> n ) {
+            this.elem = e;
+            this.next = n;
+        }
 
-    public T getElement() { return elem; }
-    public Node<T> getNext() { return next; }
-    public void setNext(Node<T> n) { next = n; }
+        public T getElement() { return elem; }
+        public Node<T> getNext() { return next; }
+        public void setNext(Node<T> n) { next = n; }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.stream.Collector;
+
+/**
+ * Keeps the k greatest elements of a stream in a MinHeap of at
+ * most k elements, whose root is the smallest element kept.
+ *
+ * Once k elements are kept, an element that does not beat the
+ * root is rejected with a single comparison, and one that does
+ * replaces the root in a single sift down, so n elements cost
+ * O(n) comparisons for most inputs and O(n log k) at worst, in
+ * O(k) memory. Partial results of parallel workers can be merged,
+ * and collector() does so for parallel streams.
+ *
+ * @param <T> type of the elements.
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class TopK<T> {
+
+    private final int k;                             /** Most elements kept. */
+    private final MinHeap<T> heap;                   /** The elements kept, weakest at the root. */
+    private final Comparator<? super T> comparator;  /** The order of the elements. */
+
+    /**
+     * Construct a selector for the k greatest elements in natural
+     * order.
+     *
+     * @param k the number of elements to keep.
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    @SuppressWarnings("unchecked")
+    public TopK(int k) {
+        this(k, (Comparator<? super T>) Comparator.naturalOrder());
+    }
+
+    /**
+     * Construct a selector for the k greatest elements.
+     *
+     * @param k the number of elements to keep.
+     * @param comparator the order of the elements.
+     * @throws IllegalArgumentException if k is not positive.
+     */
+    public TopK(int k, Comparator<? super T> comparator) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive.");
+        }
+        this.k = k;
+        this.comparator = comparator;
+        this.heap = new MinHeap<>(Math.min(k, 1 << 16), 4, comparator);
+    }
+
+    /**
+     * Offers an element, keeping it if it is among the k greatest
+     * offered so far.
+     *
+     * @param element is the element offered.
+     * @return true if the element is kept, false if rejected.
+     */
+    public boolean offer(T element) {
+        if (heap.size() < k) {
+            heap.insert(element);
+            return true;
+        }
+        if (comparator.compare(element, heap.peek()) <= 0) {
+            return false;
+        }
+        heap.replaceMin(element);
+        return true;
+    }
+
+    /**
+     * Offers every element kept by another selector, so the
+     * results of workers over parts of a stream can be combined.
+     * Merging a selector into itself changes nothing.
+     *
+     * @param other is the selector to merge in, left unchanged.
+     * @return this selector.
+     */
+    public TopK<T> merge(TopK<T> other) {
+        if (other == this) {
+            /** Offering its own elements would keep them twice. */
+            return this;
+        }
+        for (int i = 0; i < other.heap.size(); i++) {
+            offer(other.heap.elementAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * @return number of elements kept, k once k have been offered.
+     */
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * @return the smallest element kept, which an element has to
+     * beat to be kept once there are k.
+     * @throws NoSuchElementException if nothing has been offered.
+     */
+    public T threshold() {
+        return heap.peek();
+    }
+
+    /**
+     * Returns the elements kept, greatest first. The selector is
+     * left as it is.
+     *
+     * @return a list of the elements kept.
+     */
+    public MyArrayList<T> toList() {
+        MyArrayList<T> result = new MyArrayList<>(heap.size());
+        @SuppressWarnings("unchecked")
+        T[] elements = (T[]) new Object[heap.size()];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = heap.elementAt(i);
+        }
+        MinHeap<T> copy = new MinHeap<>(elements, 4, comparator);
+
+        /** Drain the copy weakest first, then reverse. */
+        while (!copy.isEmpty()) {
+            result.add(copy.removeMin());
+        }
+        for (int i = 0, j = result.size() - 1; i < j; i++, j--) {
+            result.set(j, result.set(i, result.get(j)));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a collector keeping the k greatest elements of a
+     * stream. Parallel streams select per part and merge.
+     *
+     * @param k the number of elements to keep.
+     * @param comparator the order of the elements.
+     * @return the collector.
+     */
+    public static <T> Collector<T, ?, TopK<T>> collector(int k, Comparator<? super T> comparator) {
+        return Collector.of(() -> new TopK<T>(k, comparator), TopK::offer, TopK::merge,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import structures.MinHeap;
+
+/**
+ * Benchmarks MinHeap, 4-ary by default and binary, against
+ * java.util.PriorityQueue. Each benchmark inserts every key into
+ * an empty heap, then removes them all.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class HeapBenchmarks extends KeyedBenchmark {
+
+    @Benchmark
+    public long minHeap() {
+        return drain(new MinHeap<Integer>());
+    }
+
+    @Benchmark
+    public long binaryMinHeap() {
+        return drain(new MinHeap<Integer>(16, 2, Comparator.naturalOrder()));
+    }
+
+    @Benchmark
+    public long priorityQueue() {
+        PriorityQueue<Integer> heap = new PriorityQueue<>();
+        for (int key : keys) {
+            heap.offer(key);
+        }
+        long sum = 0;
+        for (int i = 0; i < keys.length; i++) {
+            sum += heap.poll();
+        }
+        return sum;
+    }
+
+    private long drain(MinHeap<Integer> heap) {
+        for (int key : keys) {
+            heap.insert(key);
+        }
+        long sum = 0;
+        for (int i = 0; i < keys.length; i++) {
+            sum += heap.removeMin();
+        }
+        return sum;
+    }
+}
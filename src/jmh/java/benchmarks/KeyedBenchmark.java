@@ -0,0 +1,103 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The state every benchmark class shares: the keys its workloads
+ * run over, drawn once per trial for each size and distribution.
+ *
+ * Each subclass has one @Benchmark method per structure, running
+ * the same workload over all the keys, so an operation is one run
+ * and the time per key is the score divided by size.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public abstract class KeyedBenchmark {
+
+    /** The distributions keys are drawn from. */
+    public enum Distribution { UNIFORM, SEQUENTIAL, ZIPFIAN }
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"UNIFORM", "SEQUENTIAL", "ZIPFIAN"})
+    public Distribution distribution;
+
+    protected int[] keys;                      /** The keys of the current trial. */
+
+    @Setup
+    public void generateKeys() {
+        keys = generate(distribution, size, new Random(42));
+    }
+
+    /**
+     * Generates keys of the given distribution.
+     *
+     * @param distribution how keys are drawn.
+     * @param size the number of keys, also the number of distinct
+     * values keys are drawn from.
+     * @param random the source of randomness.
+     * @return the keys.
+     */
+    static int[] generate(Distribution distribution, int size, Random random) {
+        int[] keys = new int[size];
+        switch (distribution) {
+            case SEQUENTIAL:
+                for (int i = 0; i < size; i++) {
+                    keys[i] = i;
+                }
+                break;
+            case UNIFORM:
+                for (int i = 0; i < size; i++) {
+                    keys[i] = random.nextInt(size);
+                }
+                break;
+            case ZIPFIAN:
+                /** Draw ranks with probability proportional to
+                 * 1 / rank^0.99 by binary search over the
+                 * cumulative distribution.
+                 */
+                double[] cumulative = new double[size];
+                double total = 0;
+                for (int i = 0; i < size; i++) {
+                    total += 1.0 / Math.pow(i + 1, 0.99);
+                    cumulative[i] = total;
+                }
+                for (int i = 0; i < size; i++) {
+                    double target = random.nextDouble() * total;
+                    int lo = 0;
+                    int hi = size - 1;
+                    while (lo < hi) {
+                        int mid = (lo + hi) >>> 1;
+                        if (cumulative[mid] < target) {
+                            lo = mid + 1;
+                        } else {
+                            hi = mid;
+                        }
+                    }
+                    keys[i] = lo;
+                }
+                break;
+        }
+        return keys;
+    }
+}
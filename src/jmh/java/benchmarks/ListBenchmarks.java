@@ -0,0 +1,44 @@
+package benchmarks;
+
+import java.util.ArrayList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import structures.MyArrayList;
+
+/**
+ * Benchmarks MyArrayList against java.util.ArrayList. Each
+ * benchmark adds every key to an empty list, then gets every
+ * element.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class ListBenchmarks extends KeyedBenchmark {
+
+    @Benchmark
+    public long myArrayList() {
+        MyArrayList<Integer> list = new MyArrayList<>();
+        for (int key : keys) {
+            list.add(key);
+        }
+        long sum = 0;
+        for (int i = 0; i < list.size(); i++) {
+            sum += list.get(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long arrayList() {
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int key : keys) {
+            list.add(key);
+        }
+        long sum = 0;
+        for (int i = 0; i < list.size(); i++) {
+            sum += list.get(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.util.HashMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import structures.MyHashMap;
+
+/**
+ * Benchmarks MyHashMap against java.util.HashMap. Each benchmark
+ * puts every key into an empty map, then gets every key.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class MapBenchmarks extends KeyedBenchmark {
+
+    @Benchmark
+    public long myHashMap() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        for (int key : keys) {
+            map.put(key, key);
+        }
+        long sum = 0;
+        for (int key : keys) {
+            sum += map.get(key);
+        }
+        return sum + map.size();
+    }
+
+    @Benchmark
+    public long hashMap() {
+        HashMap<Integer, Integer> map = new HashMap<>();
+        for (int key : keys) {
+            map.put(key, key);
+        }
+        long sum = 0;
+        for (int key : keys) {
+            sum += map.get(key);
+        }
+        return sum + map.size();
+    }
+}
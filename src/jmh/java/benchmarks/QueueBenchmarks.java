@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.LinkedList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import structures.DoublyLinkedList;
+import structures.SinglyLinkedList;
+
+/**
+ * Benchmarks both linked lists used as FIFO queues against
+ * java.util.ArrayDeque and java.util.LinkedList. Each benchmark
+ * adds every key at the tail, then removes them all from the head.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class QueueBenchmarks extends KeyedBenchmark {
+
+    @Benchmark
+    public long singlyLinkedList() {
+        SinglyLinkedList<Integer> list = new SinglyLinkedList<>();
+        for (int key : keys) {
+            list.addLast(key);
+        }
+        long sum = 0;
+        while (!list.isEmpty()) {
+            sum += list.removeFirst();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long doublyLinkedList() {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<>();
+        for (int key : keys) {
+            list.addToTail(key);
+        }
+        long sum = 0;
+        while (!list.isEmpty()) {
+            sum += list.removeFromHead();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long arrayDeque() {
+        ArrayDeque<Integer> list = new ArrayDeque<>();
+        for (int key : keys) {
+            list.addLast(key);
+        }
+        long sum = 0;
+        while (!list.isEmpty()) {
+            sum += list.pollFirst();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long linkedList() {
+        LinkedList<Integer> list = new LinkedList<>();
+        for (int key : keys) {
+            list.addLast(key);
+        }
+        long sum = 0;
+        while (!list.isEmpty()) {
+            sum += list.pollFirst();
+        }
+        return sum;
+    }
+}
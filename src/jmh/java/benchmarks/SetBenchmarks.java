@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.util.HashSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import structures.Set;
+
+/**
+ * Benchmarks Set against java.util.HashSet. Each benchmark adds
+ * every key to an empty set, then looks every key up. Set is a
+ * list with O(n) add and contains, so `gradle jmh` leaves these
+ * out (see build.gradle); run them on the smaller sizes with
+ *   java -jar build/libs/data-structures-jmh.jar SetBenchmarks -p size=1000,10000
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class SetBenchmarks extends KeyedBenchmark {
+
+    @Benchmark
+    public long set() {
+        Set<Integer> set = new Set<>();
+        for (int key : keys) {
+            set.add(key);
+        }
+        long sum = 0;
+        for (int key : keys) {
+            sum += set.contains(key) ? 1 : 0;
+        }
+        return sum + set.size();
+    }
+
+    @Benchmark
+    public long hashSet() {
+        HashSet<Integer> set = new HashSet<>();
+        for (int key : keys) {
+            set.add(key);
+        }
+        long sum = 0;
+        for (int key : keys) {
+            sum += set.contains(key) ? 1 : 0;
+        }
+        return sum + set.size();
+    }
+}
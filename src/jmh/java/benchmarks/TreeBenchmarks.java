@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.util.TreeMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import structures.BST;
+import structures.BTree;
+
+/**
+ * Benchmarks BST and BTree against java.util.TreeMap. Each
+ * benchmark inserts every key into an empty tree, then looks
+ * every key up.
+ *
+ * @author Selin Kayay
+ * @version 1.0
+ */
+public class TreeBenchmarks extends KeyedBenchmark {
+
+    @Benchmark
+    public long bst() {
+        BST<Integer> tree = new BST<>();
+        for (int key : keys) {
+            tree.insert(key);
+        }
+        long sum = 0;
+        for (int key : keys) {
+            sum += tree.contains(key) ? 1 : 0;
+        }
+        return sum + tree.size();
+    }
+
+    @Benchmark
+    public long bTree() {
+        BTree<Integer> tree = new BTree<>();
+        for (int key : keys) {
+            tree.insert(key);
+        }
+        long sum = 0;
+        for (int key : keys) {
+            sum += tree.contains(key) ? 1 : 0;
+        }
+        return sum + tree.size();
+    }
+
+    @Benchmark
+    public long treeMap() {
+        TreeMap<Integer, Integer> tree = new TreeMap<>();
+        for (int key : keys) {
+            tree.put(key, key);
+        }
+        long sum = 0;
+        for (int key : keys) {
+            sum += tree.containsKey(key) ? 1 : 0;
+        }
+        return sum + tree.size();
+    }
+}
@@ -0,0 +1,68 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+class BSTTest {
+
+    @Test
+    void matchesTreeSetUnderRandomInsertsAndDeletes() {
+        Random random = new Random(9);
+        BST<Integer> tree = new BST<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(20_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), tree.insert(key));
+            } else {
+                assertEquals(expected.remove(key), tree.delete(key));
+            }
+        }
+        assertSameKeys(expected, tree);
+    }
+
+    @Test
+    void getIfDoesNotChangeTheSize() {
+        BST<Integer> tree = new BST<>();
+        for (int i = 0; i < 10; i++) {
+            tree.insert(i);
+        }
+        assertEquals(3, tree.getIf(3, Integer::compare));
+        assertNull(tree.getIf(30, Integer::compare));
+        assertEquals(10, tree.size());
+        assertEquals(9, tree.select(9));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), List.of(tree.inorder(new Integer[0])));
+    }
+
+    @Test
+    void clearEmptiesTheTree() {
+        BST<Integer> tree = new BST<>();
+        for (int i = 0; i < 10; i++) {
+            tree.insert(i);
+        }
+        tree.clear();
+        assertEquals(0, tree.size());
+        assertFalse(tree.contains(3));
+        assertEquals(0, tree.inorder(new Integer[0]).length);
+
+        tree.insert(5);
+        assertEquals(1, tree.size());
+        assertEquals(5, tree.select(0));
+    }
+
+    private static void assertSameKeys(TreeSet<Integer> expected, BST<Integer> tree) {
+        List<Integer> keys = new ArrayList<>(expected);
+        assertEquals(keys.size(), tree.size());
+        assertEquals(keys, List.of(tree.inorder(new Integer[0])));
+        for (int k = 0; k < keys.size(); k += 97) {
+            assertEquals(keys.get(k), tree.select(k));
+            assertEquals(k, tree.rank(keys.get(k)));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class BTreeTest {
+
+    @Test
+    void matchesTreeSetUnderRandomInsertsAndDeletes() {
+        Random random = new Random(1);
+        BTree<Integer> tree = new BTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(20_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), tree.insert(key));
+            } else {
+                assertEquals(expected.remove(key), tree.delete(key));
+            }
+        }
+        assertSameKeys(expected, tree);
+    }
+
+    @Test
+    void getIfDoesNotChangeTheSize() {
+        BTree<Integer> tree = new BTree<>();
+        for (int i = 0; i < 10; i++) {
+            tree.insert(i);
+        }
+        assertEquals(3, tree.getIf(3, Integer::compare));
+        assertNull(tree.getIf(30, Integer::compare));
+        assertEquals(10, tree.size());
+        assertEquals(9, tree.select(9));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), List.of(tree.inorder(new Integer[0])));
+    }
+
+    @Test
+    void buildFromSortedMatchesInserts() {
+        for (int n : new int[] {0, 1, 63, 64, 4_095, 4_096, 300_000}) {
+            Integer[] sorted = new Integer[n];
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < n; i++) {
+                sorted[i] = 2 * i;
+                expected.add(2 * i);
+            }
+            BTree<Integer> tree = new BTree<>();
+            tree.buildFromSorted(sorted);
+            assertSameKeys(expected, tree);
+
+            /** Deleting needs every node to be at least half full. */
+            for (int i = 0; i < n; i += 3) {
+                tree.delete(2 * i);
+                expected.remove(2 * i);
+            }
+            assertSameKeys(expected, tree);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new BTree<Integer>().buildFromSorted(new Integer[] {2, 1}));
+    }
+
+    @Test
+    void copyToTreeCopiesEveryKey() {
+        BTree<Integer> tree = new BTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 10_000; i += 7) {
+            tree.insert(i);
+            expected.add(i);
+        }
+        assertSameKeys(expected, tree.copyToTree(new BTree<>()));
+
+        BTree<Integer> reversed = tree.copyToTree(new BTree<Integer>(Comparator.<Integer>reverseOrder()));
+        assertEquals(expected.descendingSet().stream().collect(Collectors.toList()),
+                reversed.stream().collect(Collectors.toList()));
+    }
+
+    private static void assertSameKeys(TreeSet<Integer> expected, BTree<Integer> tree) {
+        List<Integer> keys = new ArrayList<>(expected);
+        assertEquals(keys.size(), tree.size());
+        List<Integer> iterated = new ArrayList<>();
+        tree.forEach(iterated::add);
+        assertEquals(keys, iterated);
+        assertEquals(keys, tree.parallelStream().collect(Collectors.toList()));
+        for (int k = 0; k < keys.size(); k += 97) {
+            assertEquals(keys.get(k), tree.select(k));
+            assertEquals(k, tree.rank(keys.get(k)));
+        }
+    }
+}
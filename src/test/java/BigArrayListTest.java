@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BigArrayListTest {
+
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    @Test
+    void matchesArrayListAcrossChunks() {
+        BigArrayList<Integer> list = new BigArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 2 * CHUNK_SIZE + 10; i++) {
+            list.add(i);
+            expected.add(i);
+        }
+        for (int i = 0; i < expected.size(); i += 1_000) {
+            assertEquals(expected.set(i, -i), list.set(i, -i));
+        }
+        assertSameElements(expected, list);
+        assertEquals(CHUNK_SIZE + 1, list.indexOf(CHUNK_SIZE + 1));
+        assertEquals(-1, list.indexOf(-1));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> list.get(list.size()));
+
+        while (!expected.isEmpty()) {
+            assertEquals(expected.remove(expected.size() - 1), list.removeLast());
+        }
+        assertTrue(list.isEmpty());
+        assertThrows(NoSuchElementException.class, list::removeLast);
+    }
+
+    @Test
+    void iteratorRemoveShiftsAcrossChunks() {
+        Random random = new Random(5);
+        BigArrayList<Integer> list = new BigArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 3 * CHUNK_SIZE + 100; i++) {
+            list.add(i);
+            expected.add(i);
+        }
+
+        Iterator<Integer> it = list.iterator();
+        Iterator<Integer> expectedIt = expected.iterator();
+        while (it.hasNext()) {
+            assertEquals(expectedIt.next(), it.next());
+            if (random.nextInt(100) == 0) {
+                it.remove();
+                expectedIt.remove();
+            }
+        }
+        assertSameElements(expected, list);
+        assertThrows(IllegalStateException.class, () -> list.iterator().remove());
+    }
+
+    @Test
+    void addAndRemoveAroundAChunkBoundary() {
+        BigArrayList<Integer> list = new BigArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            list.add(i);
+            expected.add(i);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < CHUNK_SIZE + 5; i++) {
+                list.add(i);
+                expected.add(i);
+            }
+            for (int i = 0; i < CHUNK_SIZE + 5; i++) {
+                assertEquals(expected.remove(expected.size() - 1), list.removeLast());
+            }
+            for (int i = 0; i < 1_000; i++) {
+                list.add(i);
+                assertEquals(i, list.removeLast());
+            }
+        }
+        assertSameElements(expected, list);
+    }
+
+    private static void assertSameElements(List<Integer> expected, BigArrayList<Integer> list) {
+        assertEquals(expected.size(), list.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), list.get(i));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentBSTTest {
+
+    @Test
+    void matchesTreeSetOnOneThread() {
+        Random random = new Random(61);
+        ConcurrentBST<Integer> set = new ConcurrentBST<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), set.insert(key));
+            } else {
+                assertEquals(expected.remove(key), set.delete(key));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        assertEquals(new ArrayList<>(expected), toList(set));
+        for (int key = 0; key < 5_000; key++) {
+            assertEquals(expected.contains(key), set.contains(key));
+            assertEquals(expected.contains(key) ? Integer.valueOf(key) : null, set.get(key));
+        }
+    }
+
+    @Test
+    void racingWritersAgreeOnEveryKey() throws Exception {
+        int threads = 8;
+        int keys = 5_000;
+        ConcurrentBST<Integer> set = new ConcurrentBST<>();
+        AtomicInteger inserted = new AtomicInteger();
+        AtomicInteger deleted = new AtomicInteger();
+        CyclicBarrier inserts = new CyclicBarrier(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            /** Every thread inserts every key, then, once all have,
+             * deletes the multiples of three. Exactly one insert and
+             * one delete of each key may succeed.
+             */
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < keys; i++) {
+                        if (set.insert(random.nextInt(keys))) {
+                            inserted.incrementAndGet();
+                        }
+                    }
+                    for (int k = 0; k < keys; k++) {
+                        if (set.insert(k)) {
+                            inserted.incrementAndGet();
+                        }
+                    }
+                    inserts.await();
+                    for (int k = 0; k < keys; k += 3) {
+                        if (set.delete(k)) {
+                            deleted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(keys, inserted.get());
+        assertEquals((keys + 2) / 3, deleted.get());
+        List<Integer> expected = new ArrayList<>();
+        for (int k = 0; k < keys; k++) {
+            if (k % 3 != 0) {
+                expected.add(k);
+            }
+        }
+        assertEquals(expected, toList(set));
+        assertEquals(expected.size(), set.size());
+    }
+
+    private static List<Integer> toList(ConcurrentBST<Integer> set) {
+        List<Integer> result = new ArrayList<>();
+        set.forEach(result::add);
+        return result;
+    }
+}
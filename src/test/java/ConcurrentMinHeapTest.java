@@ -0,0 +1,112 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentMinHeapTest {
+
+    @Test
+    void strictRemovesInExactOrder() {
+        Random random = new Random(71);
+        ConcurrentMinHeap<Integer> heap = ConcurrentMinHeap.strict(Comparator.naturalOrder());
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        for (int i = 0; i < 50_000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) != 0) {
+                int key = random.nextInt(1_000);
+                heap.insert(key);
+                expected.add(key);
+            } else {
+                assertEquals(expected.poll(), heap.removeMin());
+            }
+        }
+        assertEquals(expected.size(), heap.size());
+        while (!expected.isEmpty()) {
+            assertEquals(expected.poll(), heap.poll());
+        }
+        assertNull(heap.poll());
+        assertThrows(NoSuchElementException.class, heap::removeMin);
+    }
+
+    @Test
+    void shardedQueueLosesNothing() {
+        ConcurrentMinHeap<Integer> heap = new ConcurrentMinHeap<>(8, Comparator.naturalOrder());
+        for (int i = 0; i < 10_000; i++) {
+            heap.insert(i);
+        }
+        boolean[] seen = new boolean[10_000];
+        for (int i = 0; i < 10_000; i++) {
+            int element = heap.removeMin();
+            assertTrue(!seen[element]);
+            seen[element] = true;
+        }
+        assertTrue(heap.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(null));
+    }
+
+    @Test
+    void producersAndConsumersOnManyThreads() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 50_000;
+        ConcurrentMinHeap<Integer> heap = new ConcurrentMinHeap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            /** Consumers start first so that many of them wait in
+             * take for an insert to wake them.
+             */
+            List<Future<boolean[]>> taken = new ArrayList<>();
+            int perConsumer = producers * perProducer / consumers;
+            for (int c = 0; c < consumers; c++) {
+                taken.add(pool.submit(() -> {
+                    boolean[] seen = new boolean[producers * perProducer];
+                    for (int i = 0; i < perConsumer; i++) {
+                        seen[heap.take()] = true;
+                    }
+                    return seen;
+                }));
+            }
+            List<Future<?>> produced = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                produced.add(pool.submit(() -> {
+                    for (int i = base; i < base + perProducer; i++) {
+                        heap.insert(i);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : produced) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+
+            /** Every element is taken exactly once. */
+            int[] times = new int[producers * perProducer];
+            for (Future<boolean[]> future : taken) {
+                boolean[] seen = future.get(1, TimeUnit.MINUTES);
+                for (int i = 0; i < seen.length; i++) {
+                    times[i] += seen[i] ? 1 : 0;
+                }
+            }
+            for (int count : times) {
+                assertEquals(1, count);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(heap.isEmpty());
+        assertNull(heap.poll(10, TimeUnit.MILLISECONDS));
+    }
+}
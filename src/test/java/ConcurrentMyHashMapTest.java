@@ -0,0 +1,91 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentMyHashMapTest {
+
+    @Test
+    void matchesHashMapOnOneThread() {
+        Random random = new Random(31);
+        ConcurrentMyHashMap<Integer, Integer> map = new ConcurrentMyHashMap<>(4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = 0; key < 5_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected.size(), map.keyList().size());
+        assertEquals(expected.size(), map.values().size());
+    }
+
+    @Test
+    void writersAndReadersOnManyThreads() throws Exception {
+        int threads = 8;
+        int keysPerThread = 20_000;
+        ConcurrentMyHashMap<Integer, Integer> map = new ConcurrentMyHashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(2 * threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int base = t * keysPerThread;
+
+                /** Each writer owns its keys: it puts them all,
+                 * removes the odd ones and overwrites the rest.
+                 */
+                futures.add(pool.submit(() -> {
+                    for (int k = base; k < base + keysPerThread; k++) {
+                        assertNull(map.put(k, k));
+                    }
+                    for (int k = base + 1; k < base + keysPerThread; k += 2) {
+                        assertEquals(k, map.remove(k));
+                    }
+                    for (int k = base; k < base + keysPerThread; k += 2) {
+                        assertEquals(k, map.put(k, -k));
+                    }
+                    return null;
+                }));
+
+                /** Readers racing the writers, and the resizes they
+                 * cause, only ever see a value that was written.
+                 */
+                futures.add(pool.submit(() -> {
+                    for (int round = 0; round < 5; round++) {
+                        for (int k = base; k < base + keysPerThread; k++) {
+                            Integer value = map.get(k);
+                            assertTrue(value == null || value == k || value == -k);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(threads * keysPerThread / 2, map.size());
+        for (int k = 0; k < threads * keysPerThread; k++) {
+            assertEquals(k % 2 == 0 ? Integer.valueOf(-k) : null, map.get(k));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class DoubleArrayListTest {
+
+    @Test
+    void comparesElementsLikeDoubleEquals() {
+        DoubleArrayList list = new DoubleArrayList();
+        list.addAll(new double[] {1.5, Double.NaN, 0.0, -0.0});
+
+        /** NaN is found, and 0.0 and -0.0 are told apart. */
+        assertEquals(1, list.indexOf(Double.NaN));
+        assertEquals(2, list.indexOf(0.0));
+        assertEquals(3, list.indexOf(-0.0));
+        assertTrue(list.remove(-0.0));
+        assertFalse(list.contains(-0.0));
+        assertTrue(list.contains(0.0));
+        assertTrue(list.remove(Double.NaN));
+        assertArrayEquals(new double[] {1.5, 0.0}, list.toArray());
+    }
+}
@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IndexedMinHeapTest {
+
+    @Test
+    void handlesFollowTheirElementsForEveryArity() {
+        for (int arity : new int[] {2, 4, 8}) {
+            Random random = new Random(arity);
+            IndexedMinHeap<Integer> heap = new IndexedMinHeap<>(1, arity, Comparator.naturalOrder());
+            List<IndexedMinHeap.Handle<Integer>> live = new ArrayList<>();
+            List<IndexedMinHeap.Handle<Integer>> gone = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) {
+                int op = random.nextInt(6);
+                if (live.isEmpty() || op < 2) {
+                    live.add(heap.insert(random.nextInt(1_000)));
+                } else if (op == 2) {
+                    IndexedMinHeap.Handle<Integer> min = min(live);
+                    assertEquals(min.getValue(), heap.removeMin());
+                    /** Ties may remove either handle, find which. */
+                    IndexedMinHeap.Handle<Integer> removed = removedOne(heap, live, min.getValue());
+                    live.remove(removed);
+                    gone.add(removed);
+                } else if (op == 3) {
+                    IndexedMinHeap.Handle<Integer> handle = live.remove(random.nextInt(live.size()));
+                    assertTrue(heap.remove(handle));
+                    gone.add(handle);
+                } else {
+                    IndexedMinHeap.Handle<Integer> handle = live.get(random.nextInt(live.size()));
+                    heap.changeKey(handle, random.nextInt(1_000));
+                }
+                assertEquals(live.size(), heap.size());
+            }
+
+            /** Handles that left the heap, however they left,
+             * can no longer be used.
+             */
+            for (IndexedMinHeap.Handle<Integer> handle : gone) {
+                assertFalse(heap.contains(handle));
+                assertFalse(heap.remove(handle));
+                assertThrows(NoSuchElementException.class, () -> heap.decreaseKey(handle, -1));
+                assertThrows(NoSuchElementException.class, () -> heap.increaseKey(handle, 2_000));
+            }
+            while (!live.isEmpty()) {
+                IndexedMinHeap.Handle<Integer> min = min(live);
+                assertEquals(min.getValue(), heap.peek());
+                assertEquals(min.getValue(), heap.removeMin());
+                live.remove(removedOne(heap, live, min.getValue()));
+            }
+            assertThrows(NoSuchElementException.class, heap::removeMin);
+        }
+    }
+
+    @Test
+    void keysOnlyMoveTheWayTheMethodSays() {
+        IndexedMinHeap<Integer> heap = new IndexedMinHeap<>();
+        IndexedMinHeap.Handle<Integer> five = heap.insert(5);
+        heap.insert(3);
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(five, 6));
+        assertThrows(IllegalArgumentException.class, () -> heap.increaseKey(five, 4));
+        heap.decreaseKey(five, 1);
+        assertEquals(1, heap.peek());
+        heap.increaseKey(five, 9);
+        assertEquals(3, heap.removeMin());
+        assertEquals(9, heap.removeMin());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void handlesOfAnotherHeapAreNotContained() {
+        IndexedMinHeap<Integer> heap = new IndexedMinHeap<>();
+        IndexedMinHeap<Integer> other = new IndexedMinHeap<>();
+        heap.insert(1);
+        IndexedMinHeap.Handle<Integer> foreign = other.insert(1);
+        assertFalse(heap.contains(foreign));
+        assertFalse(heap.remove(foreign));
+        assertEquals(1, heap.size());
+    }
+
+    private static IndexedMinHeap.Handle<Integer> min(List<IndexedMinHeap.Handle<Integer>> handles) {
+        IndexedMinHeap.Handle<Integer> min = handles.get(0);
+        for (IndexedMinHeap.Handle<Integer> handle : handles) {
+            if (handle.getValue() < min.getValue()) {
+                min = handle;
+            }
+        }
+        return min;
+    }
+
+    private static IndexedMinHeap.Handle<Integer> removedOne(IndexedMinHeap<Integer> heap,
+            List<IndexedMinHeap.Handle<Integer>> live, int value) {
+        for (IndexedMinHeap.Handle<Integer> handle : live) {
+            if (handle.getValue() == value && !heap.contains(handle)) {
+                return handle;
+            }
+        }
+        throw new AssertionError("No handle of " + value + " left the heap.");
+    }
+}
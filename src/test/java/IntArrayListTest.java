@@ -0,0 +1,70 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IntArrayListTest {
+
+    @Test
+    void matchesArrayListUnderRandomOperations() {
+        Random random = new Random(81);
+        IntArrayList list = new IntArrayList();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            int element = random.nextInt(200);
+            switch (random.nextInt(5)) {
+                case 0:
+                    assertEquals(expected.remove((Integer) element), list.remove(element));
+                    break;
+                case 1:
+                    if (!expected.isEmpty()) {
+                        int index = random.nextInt(expected.size());
+                        assertEquals(expected.set(index, element), list.set(index, element));
+                    }
+                    break;
+                case 2:
+                    assertEquals(expected.indexOf(element), list.indexOf(element));
+                    break;
+                default:
+                    list.add(element);
+                    expected.add(element);
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), list.toArray());
+    }
+
+    @Test
+    void addAllAndIteratorRemove() {
+        IntArrayList list = new IntArrayList(0);
+        assertFalse(list.addAll(new int[0]));
+        assertTrue(list.addAll(new int[] {1, 2, 3, 4, 5, 6}));
+        assertTrue(list.addAll(new int[] {7, 8}));
+
+        PrimitiveIterator.OfInt it = list.iterator();
+        assertThrows(IllegalStateException.class, it::remove);
+        while (it.hasNext()) {
+            if (it.nextInt() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertArrayEquals(new int[] {1, 3, 5, 7}, list.toArray());
+
+        int[] sum = {0};
+        list.forEach(x -> sum[0] += x);
+        assertEquals(16, sum[0]);
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> list.get(0));
+        assertThrows(IllegalArgumentException.class, () -> new IntArrayList(-1));
+    }
+}
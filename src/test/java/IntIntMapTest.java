@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IntIntMapTest {
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(11);
+        IntIntMap map = new IntIntMap(-1);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                Integer old = expected.remove(key);
+                assertEquals(old == null ? -1 : old, map.remove(key));
+            } else {
+                assertEquals(expected.getOrDefault(key, -1), map.put(key, i));
+                expected.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -100; key < 4_900; key++) {
+            assertEquals(expected.getOrDefault(key, -1), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+
+    @Test
+    void removingFromTheMiddleOfARunKeepsTheRestReachable() {
+        int[] colliding = collidingKeys(6);
+        IntIntMap map = new IntIntMap(-1);
+        for (int key : colliding) {
+            map.put(key, key);
+        }
+
+        /** Shifting back must move the later keys of the run
+         * into the gap, or they would sit behind an empty slot.
+         */
+        assertEquals(colliding[1], map.remove(colliding[1]));
+        assertEquals(colliding[3], map.remove(colliding[3]));
+        for (int i = 0; i < colliding.length; i++) {
+            assertEquals(i == 1 || i == 3 ? -1 : colliding[i], map.get(colliding[i]));
+        }
+        assertEquals(4, map.size());
+
+        /** Grow the table several times, the run is split up. */
+        for (int key = 1; key <= 1_000; key++) {
+            map.put(key * 7919, key);
+        }
+        for (int i = 0; i < colliding.length; i++) {
+            assertEquals(i == 1 || i == 3 ? -1 : colliding[i], map.get(colliding[i]));
+        }
+        assertEquals(1_004, map.size());
+    }
+
+    @Test
+    void zeroIsAKeyLikeAnyOther() {
+        IntIntMap map = new IntIntMap();
+        assertFalse(map.containsKey(0));
+        assertEquals(0, map.put(0, 5));
+        assertEquals(5, map.put(0, 6));
+        map.put(1, 1);
+        assertTrue(map.containsKey(0));
+
+        int[] keys = map.keys();
+        int[] values = map.values();
+        assertEquals(2, keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(keys[i] == 0 ? 6 : 1, values[i]);
+        }
+        assertEquals(6, map.remove(0));
+        assertArrayEquals(new int[] {1}, map.keys());
+    }
+
+    @Test
+    void tablesStopGrowingAtTheLargestPowerOfTwo() {
+        assertEquals(32, Hashing.grow(16));
+        assertEquals(1 << 30, Hashing.grow(1 << 29));
+        assertThrows(OutOfMemoryError.class, () -> Hashing.grow(1 << 30));
+    }
+
+    /**
+     * Finds keys with the same home slot in a table of 16 slots,
+     * by the mixing IntIntMap uses.
+     */
+    private static int[] collidingKeys(int count) {
+        int[] keys = new int[count];
+        int found = 0;
+        for (int key = 1; found < count; key++) {
+            if ((Hashing.mix(key) & 15) == 3) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}
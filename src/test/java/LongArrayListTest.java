@@ -0,0 +1,39 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.PrimitiveIterator;
+
+import org.junit.jupiter.api.Test;
+
+class LongArrayListTest {
+
+    @Test
+    void growsAndShiftsLikeAnArrayList() {
+        LongArrayList list = new LongArrayList();
+        for (long i = 0; i < 10_000; i++) {
+            list.add(i << 33);
+        }
+        assertEquals(10_000, list.size());
+        assertEquals(1L << 33, list.get(1));
+
+        assertTrue(list.remove(0));
+        assertFalse(list.remove(1));
+        assertEquals(9_999, list.size());
+        assertEquals(1L << 33, list.get(0));
+        assertEquals(2L << 33, list.set(1, -1));
+        assertEquals(1, list.indexOf(-1));
+
+        PrimitiveIterator.OfLong it = list.iterator();
+        long count = 0;
+        while (it.hasNext()) {
+            it.nextLong();
+            it.remove();
+            count++;
+        }
+        assertEquals(9_999, count);
+        assertTrue(list.isEmpty());
+        assertArrayEquals(new long[0], list.toArray());
+    }
+}
@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LongLongMapTest {
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(12);
+        LongLongMap map = new LongLongMap(-1);
+        HashMap<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = (random.nextInt(5_000) - 100) * 0x1_0000_0001L;
+            if (random.nextInt(3) == 0) {
+                Long old = expected.remove(key);
+                assertEquals(old == null ? -1 : old, map.remove(key));
+            } else {
+                assertEquals(expected.getOrDefault(key, -1L), map.put(key, i));
+                expected.put(key, (long) i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long key : expected.keySet()) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected.size(), map.keys().length);
+    }
+
+    @Test
+    void removingFromTheMiddleOfARunKeepsTheRestReachable() {
+        long[] colliding = collidingKeys(6);
+        LongLongMap map = new LongLongMap(-1);
+        for (long key : colliding) {
+            map.put(key, key);
+        }
+        assertEquals(colliding[0], map.remove(colliding[0]));
+        assertEquals(colliding[4], map.remove(colliding[4]));
+        for (long key = 1; key <= 1_000; key++) {
+            map.put(key << 32, key);
+        }
+        for (int i = 0; i < colliding.length; i++) {
+            assertEquals(i == 0 || i == 4 ? -1 : colliding[i], map.get(colliding[i]));
+        }
+        assertEquals(1_004, map.size());
+    }
+
+    /**
+     * Finds keys with the same home slot in a table of 16 slots,
+     * by the mixing LongLongMap uses.
+     */
+    private static long[] collidingKeys(int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 1; found < count; key++) {
+            if ((Hashing.mix(key) & 15) == 9) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}
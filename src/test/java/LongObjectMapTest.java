@@ -0,0 +1,51 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LongObjectMapTest {
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(13);
+        LongObjectMap<String> map = new LongObjectMap<>();
+        HashMap<Long, String> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = Integer.toString(i);
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long key = -100; key < 4_900; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+
+        long[] keys = map.keys();
+        MyArrayList<String> values = map.values();
+        assertEquals(expected.size(), values.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(expected.get(keys[i]), values.get(i));
+        }
+    }
+
+    @Test
+    void removesTheZeroKeyAndRejectsNullValues() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(0, "zero");
+        map.put(1, "one");
+        assertEquals("zero", map.remove(0));
+        assertNull(map.get(0));
+        assertEquals("one", map.remove(1));
+        assertNull(map.remove(1));
+        assertEquals(0, map.size());
+        assertThrows(IllegalArgumentException.class, () -> map.put(2, null));
+    }
+}
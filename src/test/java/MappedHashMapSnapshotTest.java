@@ -0,0 +1,118 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedHashMapSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopensWhatWasWritten() throws IOException {
+        MyHashMap<String, Integer> map = new MyHashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            map.put("key" + i, i);
+        }
+        for (int i = 0; i < 10_000; i += 3) {
+            map.remove("key" + i);
+        }
+
+        Path file = dir.resolve("map.snapshot");
+        map.writeSnapshot(file, Codec.STRING, Codec.INTEGER);
+        try (MappedHashMapSnapshot<String, Integer> snapshot = MappedHashMapSnapshot.open(file,
+                Codec.STRING, Codec.INTEGER)) {
+            assertEquals(map.size(), snapshot.size());
+            for (int i = 0; i < 10_000; i++) {
+                assertEquals(map.get("key" + i), snapshot.get("key" + i));
+            }
+            assertFalse(snapshot.containsKey("missing"));
+        }
+    }
+
+    @Test
+    void overwritesAnOlderSnapshotWhileItIsOpen() throws IOException {
+        Path file = dir.resolve("map.snapshot");
+        MyHashMap<Long, String> map = new MyHashMap<>();
+        for (long i = 0; i < 1_000; i++) {
+            map.put(i, "value" + i);
+        }
+        map.writeSnapshot(file, Codec.LONG, Codec.STRING);
+
+        try (MappedHashMapSnapshot<Long, String> older = MappedHashMapSnapshot.open(file,
+                Codec.LONG, Codec.STRING)) {
+            MyHashMap<Long, String> smaller = new MyHashMap<>();
+            smaller.put(5L, "five");
+            smaller.writeSnapshot(file, Codec.LONG, Codec.STRING);
+            try (MappedHashMapSnapshot<Long, String> snapshot = MappedHashMapSnapshot.open(file,
+                    Codec.LONG, Codec.STRING)) {
+                assertEquals(1, snapshot.size());
+                assertEquals("five", snapshot.get(5L));
+                assertNull(snapshot.get(6L));
+            }
+
+            /** The file was replaced, not rewritten in place. */
+            assertEquals(1_000, older.size());
+            for (long i = 0; i < 1_000; i++) {
+                assertEquals("value" + i, older.get(i));
+            }
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(file), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSnapshots() throws IOException {
+        Path file = dir.resolve("map.snapshot");
+        MyHashMap<String, String> map = new MyHashMap<>();
+        map.put("a", "b");
+        map.writeSnapshot(file, Codec.STRING, Codec.STRING);
+        byte[] good = Files.readAllBytes(file);
+
+        Files.write(file, withInt(good, 0, 0x12345678));
+        assertThrows(IOException.class, () -> open(file));
+
+        Files.write(file, withInt(good, 4, MappedHashMapSnapshot.VERSION + 1));
+        IOException e = assertThrows(IOException.class, () -> open(file));
+        assertTrue(e.getMessage().contains("version"));
+
+        Files.write(file, new byte[7]);
+        assertThrows(IOException.class, () -> open(file));
+    }
+
+    @Test
+    void cannotBeUsedOnceClosed() throws IOException {
+        Path file = dir.resolve("map.snapshot");
+        new MyHashMap<String, String>().writeSnapshot(file, Codec.STRING, Codec.STRING);
+        MappedHashMapSnapshot<String, String> snapshot = open(file);
+        assertEquals(0, snapshot.size());
+        assertNull(snapshot.get("a"));
+        snapshot.close();
+        snapshot.close();
+        assertThrows(IllegalStateException.class, () -> snapshot.get("a"));
+    }
+
+    private static MappedHashMapSnapshot<String, String> open(Path file) throws IOException {
+        return MappedHashMapSnapshot.open(file, Codec.STRING, Codec.STRING);
+    }
+
+    private static byte[] withInt(byte[] bytes, int offset, int value) {
+        byte[] copy = bytes.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        return copy;
+    }
+}
@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedRecordListTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopensWithEveryRecordAdded() throws IOException {
+        Path file = dir.resolve("list.records");
+        try (MappedRecordList list = MappedRecordList.open(file, 8)) {
+            for (long i = 0; i < 100_000; i++) {
+                assertEquals(i, list.add(i * i));
+            }
+            list.set(7, -7L);
+            list.flush();
+        }
+
+        try (MappedRecordList list = MappedRecordList.open(file, 8)) {
+            assertEquals(100_000, list.size());
+            assertEquals(-7L, list.getLong(7));
+            for (long i = 8; i < 100_000; i++) {
+                assertEquals(i * i, list.getLong(i));
+            }
+            assertEquals(100_000, list.add(1L));
+            assertThrows(IndexOutOfBoundsException.class, () -> list.getLong(100_001));
+        }
+    }
+
+    @Test
+    void recordsSpanSeveralRegions() throws IOException {
+        /** Four records fill a region, so five need two. */
+        int width = MappedRecordList.REGION_BYTES / 4;
+        byte[] record = new byte[width];
+        Path file = dir.resolve("list.records");
+        try (MappedRecordList list = MappedRecordList.open(file, width)) {
+            for (int i = 0; i < 5; i++) {
+                ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN).putInt(0, i).putLong(width - 8, -i);
+                list.add(record);
+            }
+        }
+        try (MappedRecordList list = MappedRecordList.open(file, width)) {
+            assertEquals(5, list.size());
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i, list.getInt(i, 0));
+                assertEquals(-i, list.getLong(i, width - 8));
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> list.getLong(0, width - 4));
+        }
+    }
+
+    @Test
+    void recordsAreCopiedInAndOut() throws IOException {
+        try (MappedRecordList list = MappedRecordList.open(dir.resolve("list.records"), 3)) {
+            list.add(new byte[] {1, 2, 3});
+            list.set(0, new byte[] {4, 5, 6});
+            byte[] dest = new byte[3];
+            list.get(0, dest);
+            assertArrayEquals(new byte[] {4, 5, 6}, dest);
+            assertThrows(IllegalArgumentException.class, () -> list.add(new byte[4]));
+            assertThrows(IllegalStateException.class, () -> list.add(1L));
+
+            list.clear();
+            assertTrue(list.isEmpty());
+            assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+        }
+    }
+
+    @Test
+    void rejectsFilesOfAnotherKind() throws IOException {
+        Path file = dir.resolve("list.records");
+        MappedRecordList.open(file, 8).close();
+
+        IOException e = assertThrows(IOException.class, () -> MappedRecordList.open(file, 16));
+        assertTrue(e.getMessage().contains("8 bytes"));
+
+        putInt(file, 4, MappedRecordList.VERSION + 1);
+        e = assertThrows(IOException.class, () -> MappedRecordList.open(file, 8));
+        assertTrue(e.getMessage().contains("version"));
+
+        putInt(file, 0, 0x12345678);
+        assertThrows(IOException.class, () -> MappedRecordList.open(file, 8));
+    }
+
+    @Test
+    void cannotBeUsedOnceClosed() throws IOException {
+        MappedRecordList list = MappedRecordList.open(dir.resolve("list.records"), 8);
+        list.add(1L);
+        list.close();
+        list.close();
+        assertThrows(IllegalStateException.class, () -> list.getLong(0));
+        assertThrows(IllegalStateException.class, () -> list.add(2L));
+    }
+
+    private static void putInt(Path file, long position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, value), position);
+        }
+    }
+}
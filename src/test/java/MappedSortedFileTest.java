@@ -0,0 +1,151 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedSortedFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopensWhatWasWrittenAcrossManyBlocks() throws IOException {
+        BST<String> tree = new BST<>();
+        TreeSet<String> expected = new TreeSet<>();
+        for (int i = 0; i < 20_000; i += 2) {
+            String key = "key" + i;
+            tree.insert(key);
+            expected.add(key);
+        }
+
+        Path file = dir.resolve("tree.sst");
+        tree.writeSortedFile(file, Codec.STRING);
+        try (MappedSortedFile<String> sorted = MappedSortedFile.open(file, Codec.STRING)) {
+            assertEquals(expected.size(), sorted.size());
+            assertEquals(new ArrayList<>(expected), toList(sorted.iterator()));
+            for (int i = 0; i < 20_000; i++) {
+                String key = "key" + i;
+                assertEquals(expected.contains(key) ? key : null, sorted.get(key));
+            }
+            assertFalse(sorted.contains("a"));
+            assertFalse(sorted.contains("z"));
+
+            assertEquals(new ArrayList<>(expected.subSet("key100", true, "key2", true)),
+                    toList(sorted.range("key100", "key2")));
+            assertEquals(new ArrayList<>(expected.headSet("key1002", true)),
+                    toList(sorted.range(null, "key1002")));
+        }
+    }
+
+    @Test
+    void usesTheComparatorOfTheTree() throws IOException {
+        BST<Integer> tree = new BST<>(Comparator.<Integer>reverseOrder());
+        for (int i = 0; i < 5_000; i++) {
+            tree.insert(i);
+        }
+
+        Path file = dir.resolve("tree.sst");
+        tree.writeSortedFile(file, Codec.INTEGER);
+        try (MappedSortedFile<Integer> sorted = MappedSortedFile.open(file, Codec.INTEGER,
+                Comparator.<Integer>reverseOrder())) {
+            assertEquals(4_999, sorted.iterator().next());
+            assertEquals(List.of(10, 9, 8), toList(sorted.range(10, 8)));
+            assertTrue(sorted.contains(0));
+            assertNull(sorted.get(5_000));
+        }
+    }
+
+    @Test
+    void aFailedWriteLeavesTheOldFile() throws IOException {
+        BST<String> tree = new BST<>();
+        for (int i = 0; i < 1_000; i++) {
+            tree.insert("key" + i);
+        }
+        Path file = dir.resolve("tree.sst");
+        tree.writeSortedFile(file, Codec.STRING);
+        byte[] written = Files.readAllBytes(file);
+
+        Codec<String> failing = new Codec<String>() {
+            public byte[] encode(String value) {
+                if (value.equals("key5")) {
+                    throw new IllegalStateException();
+                }
+                return Codec.STRING.encode(value);
+            }
+
+            public String decode(byte[] bytes) {
+                return Codec.STRING.decode(bytes);
+            }
+        };
+        try (MappedSortedFile<String> sorted = MappedSortedFile.open(file, Codec.STRING)) {
+            assertThrows(IllegalStateException.class, () -> tree.writeSortedFile(file, failing));
+            assertEquals(1_000, sorted.size());
+            assertTrue(sorted.contains("key999"));
+        }
+        assertArrayEquals(written, Files.readAllBytes(file));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(file), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void anEmptyTreeGivesAnEmptyFile() throws IOException {
+        Path file = dir.resolve("tree.sst");
+        new BST<String>().writeSortedFile(file, Codec.STRING);
+        try (MappedSortedFile<String> sorted = MappedSortedFile.open(file, Codec.STRING)) {
+            assertEquals(0, sorted.size());
+            assertFalse(sorted.iterator().hasNext());
+            assertNull(sorted.get("a"));
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSortedFiles() throws IOException {
+        Path file = dir.resolve("tree.sst");
+        BST<String> tree = new BST<>();
+        tree.insert("a");
+        tree.writeSortedFile(file, Codec.STRING);
+        byte[] good = Files.readAllBytes(file);
+
+        Files.write(file, withInt(good, 0, 0x12345678));
+        assertThrows(IOException.class, () -> MappedSortedFile.open(file, Codec.STRING));
+
+        Files.write(file, withInt(good, 4, MappedSortedFile.VERSION + 1));
+        IOException e = assertThrows(IOException.class,
+                () -> MappedSortedFile.open(file, Codec.STRING));
+        assertTrue(e.getMessage().contains("version"));
+
+        Files.write(file, new byte[MappedSortedFile.HEADER_SIZE - 1]);
+        assertThrows(IOException.class, () -> MappedSortedFile.open(file, Codec.STRING));
+    }
+
+    private static <T> List<T> toList(Iterator<T> it) {
+        List<T> result = new ArrayList<>();
+        it.forEachRemaining(result::add);
+        return result;
+    }
+
+    private static byte[] withInt(byte[] bytes, int offset, int value) {
+        byte[] copy = bytes.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        return copy;
+    }
+}
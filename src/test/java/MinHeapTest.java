@@ -0,0 +1,56 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class MinHeapTest {
+
+    @Test
+    void removesInOrderForEveryArity() {
+        Random random = new Random(7);
+        for (int arity : new int[] {2, 4, 8}) {
+            MinHeap<Integer> heap = new MinHeap<>(1, arity, Comparator.naturalOrder());
+            PriorityQueue<Integer> expected = new PriorityQueue<>();
+            for (int i = 0; i < 50_000; i++) {
+                if (expected.isEmpty() || random.nextInt(3) != 0) {
+                    int key = random.nextInt(1_000);
+                    heap.insert(key);
+                    expected.add(key);
+                } else {
+                    assertEquals(expected.poll(), heap.removeMin());
+                }
+            }
+            while (!expected.isEmpty()) {
+                assertEquals(expected.poll(), heap.removeMin());
+            }
+            assertThrows(NoSuchElementException.class, heap::removeMin);
+        }
+    }
+
+    @Test
+    void heapifyBuildsAValidHeap() {
+        for (int n = 0; n < 100; n++) {
+            int[] keys = new Random(n).ints(n, 0, 50).toArray();
+            MinHeap<Integer> heap = MinHeap.heapify(keys);
+            int[] sorted = keys.clone();
+            java.util.Arrays.sort(sorted);
+            for (int key : sorted) {
+                assertEquals(key, heap.removeMin());
+            }
+        }
+    }
+
+    @Test
+    void minHeapOnSmallHeaps() {
+        MinHeap<Integer> heap = new MinHeap<>();
+        heap.minHeap();
+        heap.insert(1);
+        heap.minHeap();
+        assertEquals(1, heap.removeMin());
+    }
+}
@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MyArrayListTest {
+
+    @Test
+    void growthIsClampedNearTheArrayLimit() {
+        int max = Integer.MAX_VALUE - 8;
+        assertEquals(max, MyArrayList.DOUBLING.grow(1 << 30, (1 << 30) + 1));
+        assertEquals(max, MyArrayList.BY_HALF.grow(2_000_000_000, 2_000_000_001));
+        assertEquals(max + 1, MyArrayList.DOUBLING.grow(max, max + 1));
+        assertEquals(10, MyArrayList.DOUBLING.grow(0, 1));
+        assertEquals(15, MyArrayList.BY_HALF.grow(10, 11));
+        assertEquals(100, MyArrayList.DOUBLING.grow(10, 100));
+    }
+
+    @Test
+    void removeIfRemovesEveryMatch() {
+        MyArrayList<Integer> list = listOf(10);
+        assertTrue(list.removeIf(x -> x % 3 == 0));
+        assertEquals(List.of(1, 2, 4, 5, 7, 8), toList(list));
+        assertFalse(list.removeIf(x -> x > 100));
+    }
+
+    @Test
+    void removeIfLeavesTheListAsItWasWhenTheFilterThrows() {
+        MyArrayList<Integer> list = listOf(10);
+        assertThrows(IllegalStateException.class, () -> list.removeIf(x -> {
+            if (x == 6) {
+                throw new IllegalStateException();
+            }
+            return x % 2 == 0;
+        }));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), toList(list));
+    }
+
+    @Test
+    void iteratorRemovesByPosition() {
+        MyArrayList<Integer> list = new MyArrayList<>();
+        for (int x : new int[] {1, 2, 1, 2}) {
+            list.add(x);
+        }
+        Iterator<Integer> it = list.iterator();
+        it.next();
+        it.next();
+        it.next();
+        it.remove();
+        assertEquals(List.of(1, 2, 2), toList(list));
+    }
+
+    private static MyArrayList<Integer> listOf(int n) {
+        MyArrayList<Integer> list = new MyArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    private static List<Integer> toList(MyArrayList<Integer> list) {
+        List<Integer> result = new ArrayList<>();
+        list.forEach(result::add);
+        return result;
+    }
+}
@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+class MyHashMapTest {
+
+    @Test
+    void statsRecordProbesResizesAndRemovedEntries() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        assertNull(map.getStats());
+        HashMapStats stats = map.enableStats();
+        assertSame(stats, map.enableStats());
+
+        for (int i = 0; i < 1_000; i++) {
+            map.put(i, i);
+        }
+        assertEquals(1_000, stats.getSize());
+        assertTrue(stats.getResizeCount() > 0);
+        assertTrue(stats.getProbeCount() >= 1_000);
+        assertEquals(stats.getProbeCount(), LongStream.of(stats.getProbeHistogram()).sum());
+        assertEquals(1_000.0 / stats.getCapacity(), stats.getLoadFactor());
+
+        for (int i = 0; i < 1_000; i += 2) {
+            map.remove(i);
+        }
+        assertEquals(500.0 / stats.getCapacity(), stats.getTombstoneRatio());
+
+        stats.reset();
+        assertEquals(0, stats.getProbeCount());
+        assertEquals(0, stats.getMaxProbeLength());
+        assertEquals(0, stats.getResizeCount());
+        assertEquals(500, stats.getSize());
+    }
+
+    @Test
+    void removedCountFollowsRemovesAndReuse() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        int capacity = map.capacity();
+        for (int i = 0; i < 50; i++) {
+            map.remove(i);
+        }
+        assertEquals(50, map.removedCount());
+        for (int i = 0; i < 50; i++) {
+            map.put(i, -i);
+        }
+        assertEquals(capacity, map.capacity());
+        assertEquals(0, map.removedCount());
+        assertEquals(100, map.size());
+    }
+
+    @Test
+    void putAllGrowsOnceAndMatchesPut() {
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        map.put(1, -1);
+        Integer[] keys = new Integer[1_000];
+        Integer[] values = new Integer[1_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+            values[i] = i;
+        }
+        HashMapStats stats = map.enableStats();
+        map.putAll(keys, values);
+        assertEquals(1, stats.getResizeCount());
+        assertEquals(1_000, map.size());
+        assertEquals(1, map.get(1));
+
+        MyHashMap<Integer, Integer> copy = new MyHashMap<>();
+        copy.putAll(map);
+        assertEquals(1_000, copy.size());
+        assertEquals(999, copy.get(999));
+        assertThrows(IllegalArgumentException.class, () -> copy.putAll(new Integer[] {1}, new Integer[0]));
+    }
+
+    @Test
+    void tableLengthIsClampedNearTheArrayLimit() {
+        int max = Integer.MAX_VALUE - 8;
+        assertEquals(10, MyHashMap.tableLength(10, 6, 0.67));
+        assertEquals(20, MyHashMap.tableLength(10, 7, 0.67));
+        assertEquals(160, MyHashMap.tableLength(10, 100, 0.67));
+        assertEquals(max, MyHashMap.tableLength(1 << 30, (1 << 30) + 1, 0.67));
+        assertEquals(max, MyHashMap.tableLength(10, 1_400_000_000, 0.67));
+        assertThrows(OutOfMemoryError.class, () -> MyHashMap.tableLength(max, 1_500_000_000, 0.67));
+        assertThrows(OutOfMemoryError.class, () -> MyHashMap.tableLength(max, Integer.MAX_VALUE + 1, 0.67));
+    }
+
+    @Test
+    void matchesHashMapAndCountsRemovedEntries() {
+        Random random = new Random(3);
+        MyHashMap<Integer, Integer> map = new MyHashMap<>();
+        HashMapStats stats = map.enableStats();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+
+        /** Every slot holds a live entry, a removed one or nothing. */
+        int[] live = {0};
+        map.forEach((k, v) -> live[0]++);
+        assertEquals(expected.size(), live[0]);
+        assertTrue(map.size() + map.removedCount() <= map.capacity());
+        assertEquals((double) map.removedCount() / map.capacity(), stats.getTombstoneRatio());
+    }
+}
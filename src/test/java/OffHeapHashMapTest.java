@@ -0,0 +1,94 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class OffHeapHashMapTest {
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(41);
+        HashMap<Long, Long> expected = new HashMap<>();
+        try (OffHeapHashMap map = new OffHeapHashMap(8, 8, -1)) {
+            for (int i = 0; i < 200_000; i++) {
+                long key = random.nextInt(5_000);
+                if (random.nextInt(3) == 0) {
+                    Long old = expected.remove(key);
+                    assertEquals(old == null ? -1 : old, map.remove(key));
+                } else {
+                    Long old = expected.put(key, (long) i);
+                    assertEquals(old == null ? -1 : old, map.put(key, i));
+                }
+                assertEquals(expected.size(), map.size());
+            }
+            for (long key = 0; key < 5_000; key++) {
+                assertEquals(expected.getOrDefault(key, -1L), map.get(key));
+            }
+        }
+    }
+
+    @Test
+    void manyRemovalsWithFewLiveKeys() {
+        try (OffHeapHashMap map = new OffHeapHashMap(3, 5)) {
+            /** Churning through many keys while only a few are live
+             * fills the table with removed slots, which the next
+             * resize has to drop rather than double the table.
+             */
+            for (int i = 0; i < 100_000; i++) {
+                assertNull(map.put(key(i), value(i)));
+                if (i >= 4) {
+                    assertArrayEquals(value(i - 4), map.remove(key(i - 4)));
+                }
+            }
+            assertEquals(4, map.size());
+            for (int i = 0; i < 100_000; i++) {
+                assertEquals(i >= 100_000 - 4, map.containsKey(key(i)));
+            }
+
+            byte[] dest = new byte[5];
+            assertTrue(map.get(key(99_999), dest));
+            assertArrayEquals(value(99_999), dest);
+            assertArrayEquals(value(99_999), map.put(key(99_999), value(7)));
+            assertArrayEquals(value(7), map.get(key(99_999)));
+            assertFalse(map.get(key(0), dest));
+        }
+    }
+
+    @Test
+    void longAndByteKeysAgree() {
+        try (OffHeapHashMap map = new OffHeapHashMap()) {
+            map.put(42L, 7L);
+            byte[] key = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(42L).array();
+            assertTrue(map.containsKey(key));
+            assertEquals(7L, ByteBuffer.wrap(map.get(key)).order(ByteOrder.LITTLE_ENDIAN).getLong());
+        }
+    }
+
+    @Test
+    void rejectsWrongWidthsAndUseAfterClose() {
+        OffHeapHashMap map = new OffHeapHashMap(4, 4);
+        assertThrows(IllegalArgumentException.class, () -> map.put(new byte[3], new byte[4]));
+        assertThrows(IllegalArgumentException.class, () -> map.put(new byte[4], new byte[5]));
+        assertThrows(IllegalStateException.class, () -> map.put(1L, 1L));
+        map.close();
+        map.close();
+        assertThrows(IllegalStateException.class, () -> map.get(new byte[4]));
+    }
+
+    private static byte[] key(int i) {
+        return new byte[] {(byte) i, (byte) (i >>> 8), (byte) (i >>> 16)};
+    }
+
+    private static byte[] value(int i) {
+        return new byte[] {(byte) i, 1, 2, 3, (byte) (i >>> 8)};
+    }
+}
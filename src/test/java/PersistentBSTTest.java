@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class PersistentBSTTest {
+
+    @Test
+    void matchesTreeSetUnderRandomInsertsAndDeletes() {
+        Random random = new Random(51);
+        PersistentBST<Integer> tree = new PersistentBST<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), tree.insert(key));
+            } else {
+                assertEquals(expected.remove(key), tree.delete(key));
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        assertEquals(new ArrayList<>(expected), toList(tree));
+        for (int key = 0; key < 5_000; key++) {
+            assertEquals(expected.contains(key), tree.contains(key));
+        }
+    }
+
+    @Test
+    void snapshotsAreIsolatedBothWays() {
+        PersistentBST<Integer> tree = new PersistentBST<>();
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i);
+        }
+        PersistentBST<Integer> snapshot = tree.snapshot();
+
+        for (int i = 0; i < 100; i += 2) {
+            tree.delete(i);
+        }
+        tree.insert(1_000);
+        assertEquals(100, snapshot.size());
+        assertTrue(snapshot.contains(0));
+        assertFalse(snapshot.contains(1_000));
+
+        snapshot.insert(-1);
+        snapshot.clear();
+        assertEquals(0, snapshot.size());
+        assertEquals(51, tree.size());
+        assertFalse(tree.contains(-1));
+    }
+
+    @Test
+    void readersOfSnapshotsRaceOneWriter() throws Exception {
+        PersistentBST<Integer> tree = new PersistentBST<>();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        /** Every snapshot a reader takes must be a complete,
+         * sorted version, whatever the writer is doing.
+         */
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        PersistentBST<Integer> snapshot = tree.snapshot();
+                        List<Integer> keys = toList(snapshot);
+                        assertEquals(snapshot.size(), keys.size());
+                        for (int i = 1; i < keys.size(); i++) {
+                            assertTrue(keys.get(i - 1) < keys.get(i));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        Random random = new Random(52);
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                tree.insert(key);
+            } else {
+                tree.delete(key);
+            }
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(null, failure.get());
+    }
+
+    private static List<Integer> toList(PersistentBST<Integer> tree) {
+        List<Integer> result = new ArrayList<>();
+        tree.forEach(result::add);
+        return result;
+    }
+}
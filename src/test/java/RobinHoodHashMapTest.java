@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class RobinHoodHashMapTest {
+
+    /** A key whose hashcode only has a few values, so keys collide. */
+    private record Collider(int id) {
+        @Override
+        public int hashCode() {
+            return id % 3;
+        }
+    }
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(21);
+        RobinHoodHashMap<Integer, Integer> map = new RobinHoodHashMap<>();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = 0; key < 5_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected.size(), map.keyList().size());
+    }
+
+    @Test
+    void collidingKeysSurviveBackwardShiftAndResize() {
+        RobinHoodHashMap<Collider, Integer> map = new RobinHoodHashMap<>();
+        HashMap<Collider, Integer> expected = new HashMap<>();
+        for (int id = 0; id < 300; id++) {
+            map.put(new Collider(id), id);
+            expected.put(new Collider(id), id);
+        }
+
+        /** Removing from the front of each run shifts the whole
+         * run back, the rest must still be found.
+         */
+        for (int id = 0; id < 300; id += 4) {
+            assertEquals(expected.remove(new Collider(id)), map.remove(new Collider(id)));
+        }
+        for (int id = 0; id < 300; id++) {
+            assertEquals(expected.get(new Collider(id)), map.get(new Collider(id)));
+        }
+        assertEquals(expected.size(), map.size());
+        assertNull(map.remove(new Collider(0)));
+    }
+
+    @Test
+    void rejectsNullKeysAndValues() {
+        RobinHoodHashMap<String, String> map = new RobinHoodHashMap<>();
+        assertThrows(IllegalArgumentException.class, () -> map.put(null, "a"));
+        assertThrows(IllegalArgumentException.class, () -> map.put("a", null));
+        assertThrows(IllegalArgumentException.class, () -> map.get(null));
+    }
+}
@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class TopKTest {
+
+    @Test
+    void keepsTheGreatestGreatestFirst() {
+        Random random = new Random(11);
+        List<Integer> offered = new ArrayList<>();
+        TopK<Integer> top = new TopK<>(100);
+        for (int i = 0; i < 10_000; i++) {
+            int x = random.nextInt(5_000);
+            offered.add(x);
+            top.offer(x);
+        }
+        List<Integer> expected = offered.stream().sorted(Comparator.reverseOrder()).limit(100)
+                .collect(Collectors.toList());
+        assertEquals(expected, toList(top.toList()));
+        assertEquals(expected.get(99), top.threshold());
+        assertFalse(top.offer(expected.get(99)));
+
+        /** toList leaves the selector as it was. */
+        assertEquals(expected, toList(top.toList()));
+    }
+
+    @Test
+    void thresholdOfAnEmptySelectorThrows() {
+        TopK<Integer> top = new TopK<>(3);
+        assertThrows(NoSuchElementException.class, top::threshold);
+        assertEquals(0, top.toList().size());
+    }
+
+    @Test
+    void mergingIntoItselfChangesNothing() {
+        TopK<Integer> top = new TopK<>(5);
+        for (int x : new int[] {4, 1, 3}) {
+            top.offer(x);
+        }
+        top.merge(top);
+        assertEquals(3, top.size());
+        assertEquals(List.of(4, 3, 1), toList(top.toList()));
+
+        TopK<Integer> other = new TopK<>(5);
+        other.offer(2);
+        other.offer(9);
+        top.merge(other);
+        assertEquals(List.of(9, 4, 3, 2, 1), toList(top.toList()));
+    }
+
+    @Test
+    void parallelCollectorMatchesSorting() {
+        TopK<Integer> top = IntStream.range(0, 100_000).map(i -> (i * 7919) % 100_003).boxed()
+                .parallel().collect(TopK.collector(10, Comparator.naturalOrder()));
+        List<Integer> expected = IntStream.range(0, 100_000).map(i -> (i * 7919) % 100_003).boxed()
+                .sorted(Comparator.reverseOrder()).limit(10).collect(Collectors.toList());
+        assertEquals(expected, toList(top.toList()));
+    }
+
+    private static List<Integer> toList(MyArrayList<Integer> list) {
+        List<Integer> result = new ArrayList<>();
+        list.forEach(result::add);
+        return result;
+    }
+}